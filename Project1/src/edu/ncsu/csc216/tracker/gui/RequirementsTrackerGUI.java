@@ -26,6 +26,7 @@ import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.table.AbstractTableModel;
 
+import edu.ncsu.csc216.tracker.model.FrozenRequirement;
 import edu.ncsu.csc216.tracker.model.RequirementsTrackerModel;
 import edu.ncsu.csc216.tracker.requirement.Command;
 import edu.ncsu.csc216.tracker.requirement.Requirement;
@@ -186,8 +187,9 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 		//Use RequirementTracker's Model singleton to create/get the sole instance.
 		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
 		if (e.getSource() == itemNewReqXML) {
-			//Create a new requirements list list
+			//Create a new requirements list list, which has no file to journal against
 			model.createNewRequirementsList();
+			model.closeJournal();
 			itemSaveReqXML.setEnabled(true);
 			pnlReqList.updateTable();
 			cardLayout.show(panel, REQ_LIST_PANEL);
@@ -196,7 +198,10 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 		} else if (e.getSource() == itemLoadReqXML) {
 			//Load an existing requirements list
 			try {
-				model.loadRequirementsFromFile(getFileName());
+				String fileName = getFileName();
+				model.loadRequirementsFromFile(fileName);
+				//Recover the changes made after the last save, if the program stopped before saving them
+				model.openJournal(fileName + RequirementsTrackerModel.JOURNAL_SUFFIX);
 				itemSaveReqXML.setEnabled(true);
 				pnlReqList.updateTable();
 				cardLayout.show(panel, REQ_LIST_PANEL);
@@ -208,9 +213,11 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemSaveReqXML) {
-			//Save current requirements list
+			//Save current requirements list and journal the changes after it next to the new file
 			try {
-				model.saveRequirementsToFile(getFileName());
+				String fileName = getFileName();
+				model.saveRequirementsToFile(fileName);
+				model.openJournal(fileName + RequirementsTrackerModel.JOURNAL_SUFFIX);
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, "Unable to save requirements file.");
 			} catch (IllegalStateException exp) {
@@ -338,7 +345,7 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 				} else {
 					try {
 						int reqId = Integer.parseInt(reqTableModel.getValueAt(row, 0).toString());
-						String stateName = RequirementsTrackerModel.getInstance().getRequirementById(reqId).getState().getStateName();
+						String stateName = RequirementsTrackerModel.getInstance().getRequirementSnapshot(reqId).getState().getStateName();
 						if (stateName.equals(Requirement.SUBMITTED_NAME)) {
 							cardLayout.show(panel, SUBMITTED_PANEL);
 							pnlSubmitted.setReqInfo(reqId);
@@ -1091,7 +1098,7 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 		public void setReqInfo(int reqId) {
 			this.reqId = reqId;
 			pnlInfo.setReqInfo(this.reqId);
-			Requirement r = RequirementsTrackerModel.getInstance().getRequirementById(reqId);
+			FrozenRequirement r = RequirementsTrackerModel.getInstance().getRequirementSnapshot(reqId);
 			if (r == null) {
 				txtSummary.setText("");
 				txtAcceptanceTestId.setText("");
@@ -1248,7 +1255,7 @@ public class RequirementsTrackerGUI extends JFrame implements ActionListener {
 		 */
 		public void setReqInfo(int reqId) {
 			//Get the requirement from the model
-			Requirement r = RequirementsTrackerModel.getInstance().getRequirementById(reqId);
+			FrozenRequirement r = RequirementsTrackerModel.getInstance().getRequirementSnapshot(reqId);
 			if (r == null) {
 				//If the requirement doesn't exist for the given id, show an error message
 				JOptionPane.showMessageDialog(RequirementsTrackerGUI.this, "Invalid requirement id");
@@ -0,0 +1,463 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.tracker.requirement.Command;
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
+import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+
+/**
+ * CommandJournal class is an append-only binary log of the adds, deletes and Commands applied to a RequirementsList
+ * since it was last loaded or saved, so they can be replayed on top of the saved file after a crash.
+ * Each record is framed as its length, its bytes and a CRC32 of the bytes, so a record cut off by a crash is found and dropped.
+ * Records are logged in memory and made durable by commit, which does not return until the records are forced to the disk.
+ * Callers that commit at the same time share one write and one fsync (group commit): the first caller to find no write
+ * in progress writes every record logged so far for all of them, and the others wait for it and return if it covered
+ * their records.  RequirementsTrackerModel logs while it holds its lock and commits after releasing it, so other
+ * changes can be logged into the next batch while the disk is busy.
+ * A journal may also be opened with a commit window: when other callers are already queued behind a write, the next
+ * caller to write waits up to the window before taking the batch, so more records share its fsync.  A lone caller
+ * never waits, so the window only trades a bounded delay for fewer fsyncs under load.
+ * @author mlee25 Michael Lee
+ */
+public class CommandJournal implements Closeable {
+
+	/** Record type for an added Requirement */
+	private static final byte ADD = 1;
+
+	/** Record type for a deleted Requirement */
+	private static final byte DELETE = 2;
+
+	/** Record type for an applied Command */
+	private static final byte COMMAND = 3;
+
+	/** Channel of the journal file */
+	private FileChannel channel;
+
+	/** Framed records that have not been written to the file yet, guarded by this */
+	private ByteArrayOutputStream pending;
+
+	/** Number of bytes of records logged since the journal was opened, guarded by this */
+	private long logged;
+
+	/** Number of those bytes known to be on the disk, guarded by this */
+	private long durable;
+
+	/** True while one caller has the file to itself to write a batch, replay or reset, guarded by this */
+	private boolean writing;
+
+	/** Bytes of the record being built, guarded by this */
+	private ByteArrayOutputStream record;
+
+	/** Stream over record */
+	private DataOutputStream out;
+
+	/** Checksum of the record being framed, guarded by this */
+	private CRC32 crc;
+
+	/** Longest time in nanoseconds a write waits for more records when callers are queued, 0 to never wait */
+	private long commitWindow;
+
+	/** Number of callers waiting in commit for a write to finish, guarded by this */
+	private int waiting;
+
+	/**
+	 * Constructor for CommandJournal that opens or creates the journal file with no commit window.
+	 * Nothing is logged until replay has read the records already in the file.
+	 * @param filename journal file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public CommandJournal(String filename) throws IOException {
+		this(filename, 0);
+	}
+
+	/**
+	 * Constructor for CommandJournal that opens or creates the journal file.
+	 * Nothing is logged until replay has read the records already in the file.
+	 * @param filename journal file
+	 * @param commitWindow longest time in microseconds a write waits for more records under load, 0 to never wait
+	 * @throws IOException if the file cannot be opened
+	 * @throws IllegalArgumentException if the commit window is negative
+	 */
+	public CommandJournal(String filename, long commitWindow) throws IOException {
+		if (commitWindow < 0) {
+			throw new IllegalArgumentException("Invalid commit window");
+		}
+		this.commitWindow = commitWindow * 1000;
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		pending = new ByteArrayOutputStream();
+		record = new ByteArrayOutputStream();
+		out = new DataOutputStream(record);
+		crc = new CRC32();
+	}
+
+	/**
+	 * Applies the records in the journal file to a RequirementsList, in the order they were logged.
+	 * A record cut off at the end of the file is dropped and the file is truncated after the last whole record,
+	 * so later records follow on from it.
+	 * @param list the RequirementsList the journal was logged against
+	 * @return the number of records applied
+	 * @throws IOException if the file cannot be read
+	 */
+	public int replay(RequirementsList list) throws IOException {
+		startWriting();
+		try {
+			channel.position(0);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+			long end = 0;
+			int count = 0;
+			CRC32 check = new CRC32();
+			while (true) {
+				byte[] bytes;
+				try {
+					int length = in.readInt();
+					if (length <= 0 || length > channel.size()) {
+						break;
+					}
+					bytes = new byte[length];
+					in.readFully(bytes);
+					check.reset();
+					check.update(bytes, 0, length);
+					if (in.readInt() != (int) check.getValue()) {
+						break;
+					}
+				} catch (EOFException e) {
+					break;
+				}
+				apply(list, new DataInputStream(new ByteArrayInputStream(bytes)));
+				end += 8 + bytes.length;
+				count++;
+			}
+			channel.truncate(end);
+			channel.position(end);
+			return count;
+		} finally {
+			stopWriting();
+		}
+	}
+
+	/**
+	 * Logs a Requirement added to the list.
+	 * @param r the Requirement that was added
+	 */
+	public synchronized void logAdd(Requirement r) {
+		try {
+			out.writeByte(ADD);
+			out.writeInt(r.getRequirementId());
+			writeString(r.getSummary());
+			writeString(r.getAcceptanceTestId());
+		} catch (IOException e) {
+			// record is in memory and cannot fail
+		}
+		frame();
+	}
+
+	/**
+	 * Logs a Requirement deleted from the list.
+	 * @param requirementId the id of the Requirement that was deleted
+	 */
+	public synchronized void logDelete(int requirementId) {
+		try {
+			out.writeByte(DELETE);
+			out.writeInt(requirementId);
+		} catch (IOException e) {
+			// record is in memory and cannot fail
+		}
+		frame();
+	}
+
+	/**
+	 * Logs a Command that was applied to a Requirement in the list.
+	 * @param requirementId the id of the Requirement
+	 * @param c the Command that was applied
+	 */
+	public synchronized void logCommand(int requirementId, Command c) {
+		try {
+			out.writeByte(COMMAND);
+			out.writeInt(requirementId);
+			out.writeByte(c.getCommand().ordinal());
+			writeString(c.getSummary());
+			writeString(c.getAcceptanceTestId());
+			out.writeInt(c.getPriority());
+			writeString(c.getEstimate());
+			writeString(c.getDeveloperId());
+			out.writeByte(c.getRejectionReason() == null ? -1 : c.getRejectionReason().ordinal());
+		} catch (IOException e) {
+			// record is in memory and cannot fail
+		}
+		frame();
+	}
+
+	/**
+	 * Getter for the position just past the last record logged, to pass to commit.
+	 * @return the number of bytes of records logged since the journal was opened
+	 */
+	public synchronized long getLogged() {
+		return logged;
+	}
+
+	/**
+	 * Returns once every record logged before the given position is on the disk.
+	 * If no other caller is writing, this caller writes and forces every record logged so far, including records logged
+	 * by callers that are waiting for it; otherwise it waits for that write and then checks again.
+	 * If callers were waiting when this caller started to write, it first waits out the commit window for more records.
+	 * A batch that cannot be written stays pending, so the next commit tries it again.
+	 * @param position the position returned by getLogged after the records were logged
+	 * @throws IOException if the records cannot be written
+	 */
+	public void commit(long position) throws IOException {
+		ByteArrayOutputStream batch;
+		long batchEnd;
+		boolean queued;
+		synchronized (this) {
+			waiting++;
+			while (durable < position && writing) {
+				awaitWriter();
+			}
+			waiting--;
+			if (durable >= position) {
+				return;
+			}
+			writing = true;
+			queued = waiting > 0;
+		}
+		if (queued) {
+			linger();
+		}
+		synchronized (this) {
+			batch = pending;
+			batchEnd = logged;
+			pending = new ByteArrayOutputStream();
+		}
+		boolean written = false;
+		try {
+			long start = channel.position();
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+				written = true;
+			} finally {
+				if (!written) {
+					channel.truncate(start);
+					channel.position(start);
+				}
+			}
+		} finally {
+			synchronized (this) {
+				if (written) {
+					durable = batchEnd;
+				} else {
+					pending.writeTo(batch);
+					pending = batch;
+				}
+				writing = false;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Writes every record logged so far to the file and forces it to the disk.
+	 * @throws IOException if the records cannot be written
+	 */
+	public void sync() throws IOException {
+		commit(getLogged());
+	}
+
+	/**
+	 * Drops every record, after the list they were logged against has been saved or replaced.
+	 * Callers waiting to commit the dropped records return, since the records are no longer needed.
+	 * @throws IOException if the file cannot be truncated
+	 */
+	public void reset() throws IOException {
+		startWriting();
+		try {
+			synchronized (this) {
+				pending.reset();
+				durable = logged;
+			}
+			channel.truncate(0);
+			channel.position(0);
+			channel.force(true);
+		} finally {
+			stopWriting();
+		}
+	}
+
+	/**
+	 * Syncs the pending records and closes the file.
+	 * @throws IOException if the records cannot be written or the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Adds the record that has been built to the pending batch with its length and checksum.
+	 */
+	private synchronized void frame() {
+		byte[] bytes = record.toByteArray();
+		record.reset();
+		crc.reset();
+		crc.update(bytes, 0, bytes.length);
+		writeInt(pending, bytes.length);
+		pending.write(bytes, 0, bytes.length);
+		writeInt(pending, (int) crc.getValue());
+		logged += 8 + bytes.length;
+	}
+
+	/**
+	 * Waits until no other caller is writing and then claims the file.
+	 */
+	private synchronized void startWriting() {
+		while (writing) {
+			awaitWriter();
+		}
+		writing = true;
+	}
+
+	/**
+	 * Gives up the file claimed by startWriting.
+	 */
+	private synchronized void stopWriting() {
+		writing = false;
+		notifyAll();
+	}
+
+	/**
+	 * Waits out the commit window while holding the file, so records logged meanwhile join the batch.
+	 * The thread is parked rather than waiting on this, since wait rounds a window under a millisecond up to a whole one.
+	 * An interrupt ends the wait early and leaves the thread interrupted.
+	 */
+	private void linger() {
+		long deadline = System.nanoTime() + commitWindow;
+		for (long left = commitWindow; left > 0 && !Thread.currentThread().isInterrupted(); left = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(this, left);
+		}
+	}
+
+	/**
+	 * Waits for the caller that is writing to finish.  An interrupt does not stop the wait, since the caller must know
+	 * whether its records are on the disk, but the thread is interrupted again afterwards.
+	 */
+	private void awaitWriter() {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes a string as its length in UTF-8 bytes and the bytes, or a length of -1 for null.
+	 * @param s the string, may be null
+	 * @throws IOException if the string cannot be written
+	 */
+	private void writeString(String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a string written by writeString.
+	 * @param in stream to read
+	 * @return the string, or null
+	 * @throws IOException if the string cannot be read
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes an int to a byte stream, high byte first.
+	 * @param b the stream
+	 * @param v the int
+	 */
+	private static void writeInt(ByteArrayOutputStream b, int v) {
+		b.write(v >>> 24);
+		b.write(v >>> 16);
+		b.write(v >>> 8);
+		b.write(v);
+	}
+
+	/**
+	 * Applies one record to a RequirementsList.
+	 * An added Requirement gets the id it was logged with, and a Command that is no longer valid is skipped.
+	 * @param list the RequirementsList
+	 * @param in the bytes of the record
+	 * @throws IOException if the record is malformed
+	 */
+	private static void apply(RequirementsList list, DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		int id = in.readInt();
+		if (type == ADD) {
+			String summary = readString(in);
+			String acceptanceTestId = readString(in);
+			list.addRequirement(id, summary, acceptanceTestId);
+		} else if (type == DELETE) {
+			list.deleteRequirementById(id);
+		} else if (type == COMMAND) {
+			CommandValue value = valueOf(CommandValue.values(), in.readByte());
+			String summary = readString(in);
+			String acceptanceTestId = readString(in);
+			int priority = in.readInt();
+			String estimate = readString(in);
+			String developer = readString(in);
+			byte reason = in.readByte();
+			list.tryExecuteCommand(id, new Command(value, summary, acceptanceTestId, priority, estimate, developer,
+					reason < 0 ? null : valueOf(Rejection.values(), reason)));
+		} else {
+			throw new IOException("Invalid journal record");
+		}
+	}
+
+	/**
+	 * Getter for the enum value with an ordinal read from a record.
+	 * @param values the values of the enum
+	 * @param ordinal the ordinal
+	 * @param <E> the enum
+	 * @return the value
+	 * @throws IOException if no value has the ordinal, such as for a record logged by another version of the enum
+	 */
+	private static <E extends Enum<E>> E valueOf(E[] values, int ordinal) throws IOException {
+		if (ordinal < 0 || ordinal >= values.length) {
+			throw new IOException("Invalid journal record");
+		}
+		return values[ordinal];
+	}
+}
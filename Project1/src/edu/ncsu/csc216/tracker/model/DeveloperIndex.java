@@ -0,0 +1,76 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.HashMap;
+
+/**
+ * DeveloperIndex class maps each developer to the sorted requirementIds of the Requirements assigned to them,
+ * so the workload of one developer is found without visiting the other Requirements.
+ * @author mlee25 Michael Lee
+ */
+class DeveloperIndex {
+
+	/** Postings for each developer */
+	private HashMap<String, PostingList> index;
+
+	/**
+	 * Constructor for an empty DeveloperIndex.
+	 */
+	DeveloperIndex() {
+		index = new HashMap<String, PostingList>();
+	}
+
+	/**
+	 * Adds a requirementId to the postings of a developer.
+	 * @param requirementId the requirementId
+	 * @param developer the developer, or null for none
+	 */
+	void add(int requirementId, String developer) {
+		if (developer == null) {
+			return;
+		}
+		PostingList p = index.get(developer);
+		if (p == null) {
+			p = new PostingList();
+			index.put(developer, p);
+		}
+		p.add(requirementId);
+	}
+
+	/**
+	 * Removes a requirementId from the postings of a developer, dropping the developer if nothing is left.
+	 * @param requirementId the requirementId
+	 * @param developer the developer the requirementId was added with, or null for none
+	 */
+	void remove(int requirementId, String developer) {
+		if (developer == null) {
+			return;
+		}
+		PostingList p = index.get(developer);
+		if (p != null) {
+			p.remove(requirementId);
+			if (p.size() == 0) {
+				index.remove(developer);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the requirementIds assigned to a developer.
+	 * @param developer the developer
+	 * @return the requirementIds in increasing order, empty if the developer has none
+	 */
+	int[] get(String developer) {
+		PostingList p = index.get(developer);
+		return p == null ? new int[0] : p.toArray();
+	}
+
+	/**
+	 * Getter for the number of Requirements assigned to a developer.
+	 * @param developer the developer
+	 * @return the number of Requirements
+	 */
+	int count(String developer) {
+		PostingList p = index.get(developer);
+		return p == null ? 0 : p.size();
+	}
+}
@@ -0,0 +1,284 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.tracker.requirement.EstimateParser;
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
+
+/**
+ * EstimateTotals class keeps running totals of the parsed estimates of the Requirements in a RequirementsList
+ * by state, by priority and by developer, so a total is a single array read.
+ * What each counted Requirement added to the totals is kept in an open addressing table keyed by requirementId,
+ * in parallel primitive arrays like IntRequirementMap, so it can be taken back out when the Requirement changes or is removed
+ * without knowing its old fields.  The table is sized by the number of counted Requirements, not by the largest requirementId.
+ * Requirements whose estimate is missing or cannot be parsed are not counted.
+ * @author mlee25 Michael Lee
+ */
+class EstimateTotals {
+
+	/** Smallest number of slots in the table */
+	private static final int MIN_CAPACITY = 16;
+
+	/** Constant for the golden ratio multiplier used to spread the requirementIds */
+	private static final int PHI = 0x9E3779B9;
+
+	/** Requirement id stored in an empty slot of the table */
+	private static final int EMPTY = -1;
+
+	/** Number of priorities, 0 for none through 3 */
+	private static final int PRIORITIES = 4;
+
+	/** requirementId counted in each slot, or EMPTY */
+	private int[] ids;
+
+	/** Minutes counted for the requirementId in each slot */
+	private int[] minutes;
+
+	/** StateValue ordinal counted for the requirementId in each slot */
+	private byte[] states;
+
+	/** Priority counted for the requirementId in each slot */
+	private byte[] priorities;
+
+	/** Developer code counted for the requirementId in each slot, or -1 for no developer */
+	private int[] developers;
+
+	/** Number of counted requirementIds */
+	private int size;
+
+	/** Total minutes indexed by StateValue ordinal */
+	private long[] byState;
+
+	/** Total minutes indexed by priority */
+	private long[] byPriority;
+
+	/** Total minutes indexed by developer code */
+	private long[] byDeveloper;
+
+	/** Code of each developer that has been counted */
+	private HashMap<String, Integer> developerCodes;
+
+	/**
+	 * Constructor for EstimateTotals with all totals at zero.
+	 */
+	EstimateTotals() {
+		allocate(MIN_CAPACITY);
+		byState = new long[StateValue.values().length];
+		byPriority = new long[PRIORITIES];
+		byDeveloper = new long[8];
+		developerCodes = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Counts a Requirement that is not counted yet.
+	 * @param r the Requirement
+	 */
+	void add(Requirement r) {
+		int m = r.getEstimateMinutes();
+		int p = r.getPriority();
+		if (m == EstimateParser.UNKNOWN || p < 0 || p >= PRIORITIES) {
+			return;
+		}
+		if (size >= ids.length / 2) {
+			resize(ids.length * 2);
+		}
+		int slot = insert(r.getRequirementId());
+		int s = r.getState().getStateValue().ordinal();
+		int d = developerCode(r.getDeveloper());
+		minutes[slot] = m;
+		states[slot] = (byte) s;
+		priorities[slot] = (byte) p;
+		developers[slot] = d;
+		byState[s] += m;
+		byPriority[p] += m;
+		if (d >= 0) {
+			byDeveloper[d] += m;
+		}
+	}
+
+	/**
+	 * Takes what was counted for a requirementId back out of the totals.
+	 * @param requirementId the requirementId
+	 */
+	void remove(int requirementId) {
+		int slot = find(requirementId);
+		if (slot < 0) {
+			return;
+		}
+		int m = minutes[slot];
+		byState[states[slot]] -= m;
+		byPriority[priorities[slot]] -= m;
+		if (developers[slot] >= 0) {
+			byDeveloper[developers[slot]] -= m;
+		}
+		shiftBack(slot);
+		if (--size < ids.length / 8 && ids.length > MIN_CAPACITY) {
+			resize(ids.length / 2);
+		}
+	}
+
+	/**
+	 * Recounts a Requirement after its fields changed.
+	 * @param r the Requirement
+	 */
+	void update(Requirement r) {
+		remove(r.getRequirementId());
+		add(r);
+	}
+
+	/**
+	 * Getter for the total minutes of the Requirements in a state.
+	 * @param state the StateValue of the state
+	 * @return the total minutes
+	 */
+	long getByState(StateValue state) {
+		return byState[state.ordinal()];
+	}
+
+	/**
+	 * Getter for the total minutes of the Requirements with a priority.
+	 * @param priority the priority, 0 for none
+	 * @return the total minutes, or 0 if the priority is out of range
+	 */
+	long getByPriority(int priority) {
+		return priority < 0 || priority >= PRIORITIES ? 0 : byPriority[priority];
+	}
+
+	/**
+	 * Getter for the total minutes of the Requirements assigned to a developer.
+	 * @param developer the developer
+	 * @return the total minutes, or 0 if the developer has never been counted
+	 */
+	long getByDeveloper(String developer) {
+		Integer code = developerCodes.get(developer);
+		return code == null ? 0 : byDeveloper[code];
+	}
+
+	/**
+	 * Getter for the code of a developer, giving it the next code if it has none.
+	 * @param developer the developer, may be null
+	 * @return the code, or -1 for null
+	 */
+	private int developerCode(String developer) {
+		if (developer == null) {
+			return -1;
+		}
+		Integer code = developerCodes.get(developer);
+		if (code == null) {
+			code = developerCodes.size();
+			developerCodes.put(developer, code);
+			if (code == byDeveloper.length) {
+				byDeveloper = Arrays.copyOf(byDeveloper, code * 2);
+			}
+		}
+		return code;
+	}
+
+	/**
+	 * Getter for the slot of a requirementId in the table.
+	 * @param requirementId the requirementId
+	 * @return the slot, or -1 if the requirementId is not counted
+	 */
+	private int find(int requirementId) {
+		int mask = ids.length - 1;
+		for (int slot = home(requirementId); ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (ids[slot] == requirementId) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Puts a requirementId that is not counted into the first empty slot of its probe run.
+	 * @param requirementId the requirementId
+	 * @return the slot
+	 */
+	private int insert(int requirementId) {
+		int mask = ids.length - 1;
+		int slot = home(requirementId);
+		while (ids[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		ids[slot] = requirementId;
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Fills the hole at the given slot by moving back the entries of the same probe run, so lookups never need tombstones.
+	 * @param hole the slot that was emptied
+	 */
+	private void shiftBack(int hole) {
+		int mask = ids.length - 1;
+		for (int i = (hole + 1) & mask; ids[i] != EMPTY; i = (i + 1) & mask) {
+			// Move the entry unless its home slot lies cyclically in (hole, i]
+			if (((i - home(ids[i])) & mask) >= ((i - hole) & mask)) {
+				move(i, hole);
+				hole = i;
+			}
+		}
+		ids[hole] = EMPTY;
+	}
+
+	/**
+	 * Copies the entry in one slot to another.
+	 * @param from the slot to copy
+	 * @param to the slot to fill
+	 */
+	private void move(int from, int to) {
+		ids[to] = ids[from];
+		minutes[to] = minutes[from];
+		states[to] = states[from];
+		priorities[to] = priorities[from];
+		developers[to] = developers[from];
+	}
+
+	/**
+	 * Moves all entries to a table with the given number of slots.
+	 * @param capacity the new number of slots, a power of two
+	 */
+	private void resize(int capacity) {
+		int[] oldIds = ids;
+		int[] oldMinutes = minutes;
+		byte[] oldStates = states;
+		byte[] oldPriorities = priorities;
+		int[] oldDevelopers = developers;
+		allocate(capacity);
+		for (int i = 0; i < oldIds.length; i++) {
+			if (oldIds[i] != EMPTY) {
+				int slot = insert(oldIds[i]);
+				minutes[slot] = oldMinutes[i];
+				states[slot] = oldStates[i];
+				priorities[slot] = oldPriorities[i];
+				developers[slot] = oldDevelopers[i];
+			}
+		}
+	}
+
+	/**
+	 * Replaces the table with an empty one.
+	 * @param capacity the number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		ids = new int[capacity];
+		Arrays.fill(ids, EMPTY);
+		minutes = new int[capacity];
+		states = new byte[capacity];
+		priorities = new byte[capacity];
+		developers = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Getter for the slot where the probe run of a requirementId starts.
+	 * @param requirementId the requirementId
+	 * @return the slot
+	 */
+	private int home(int requirementId) {
+		int h = requirementId * PHI;
+		return (h ^ (h >>> 16)) & (ids.length - 1);
+	}
+}
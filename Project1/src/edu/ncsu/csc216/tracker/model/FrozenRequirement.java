@@ -0,0 +1,144 @@
+package edu.ncsu.csc216.tracker.model;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.RequirementState;
+import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+
+/**
+ * FrozenRequirement class is an immutable copy of the fields of a Requirement at one moment, as held by a RequirementsView.
+ * Later Commands change the Requirement but never a FrozenRequirement, so it can be read from any thread without a lock.
+ * @author mlee25 Michael Lee
+ */
+public final class FrozenRequirement {
+
+	/** Requirement's id number */
+	private final int requirementId;
+
+	/** Requirement's state, one of the shared state instances */
+	private final RequirementState state;
+
+	/** Requirement's summary */
+	private final String summary;
+
+	/** Requirement's acceptance test id */
+	private final String acceptanceTestId;
+
+	/** Requirement's priority */
+	private final int priority;
+
+	/** Requirement's estimate */
+	private final String estimate;
+
+	/** Requirement's developer */
+	private final String developer;
+
+	/** Requirement's Rejection reason */
+	private final Rejection rejection;
+
+	/** Requirement's version when it was copied */
+	private final int version;
+
+	/**
+	 * Constructor for FrozenRequirement that copies the current fields of a Requirement.
+	 * @param r the Requirement
+	 */
+	FrozenRequirement(Requirement r) {
+		requirementId = r.getRequirementId();
+		state = r.getState();
+		summary = r.getSummary();
+		acceptanceTestId = r.getAcceptanceTestId();
+		priority = r.getPriority();
+		estimate = r.getEstimate();
+		developer = r.getDeveloper();
+		rejection = r.getRejectionReason();
+		version = r.getVersion();
+	}
+
+	/**
+	 * Getter for this Requirement's requirementId.
+	 * @return the requirementId
+	 */
+	public int getRequirementId() {
+		return requirementId;
+	}
+
+	/**
+	 * Getter for this Requirement's state, the same shared instance the Requirement returned.
+	 * @return the state
+	 */
+	public RequirementState getState() {
+		return state;
+	}
+
+	/**
+	 * Getter for this Requirement's summary.
+	 * @return the summary
+	 */
+	public String getSummary() {
+		return summary;
+	}
+
+	/**
+	 * Getter for this Requirement's acceptance test id.
+	 * @return the acceptance test id
+	 */
+	public String getAcceptanceTestId() {
+		return acceptanceTestId;
+	}
+
+	/**
+	 * Getter for this Requirement's priority.
+	 * @return the priority
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Getter for this Requirement's estimate.
+	 * @return the estimate, or null if it has none
+	 */
+	public String getEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * Getter for this Requirement's developer.
+	 * @return the developer, or null if it has none
+	 */
+	public String getDeveloper() {
+		return developer;
+	}
+
+	/**
+	 * Getter for this Requirement's Rejection reason.
+	 * @return the Rejection reason, or null if it has none
+	 */
+	public Rejection getRejectionReason() {
+		return rejection;
+	}
+
+	/**
+	 * Getter for this Requirement's Rejection reason as a String.
+	 * @return the name of the Rejection constant, or null if it has none
+	 */
+	public String getRejectionReasonString() {
+		return rejection == null ? null : rejection.name();
+	}
+
+	/**
+	 * Getter for the version the Requirement was at when it was copied, to pass to a compare-and-execute of a Command.
+	 * @return the version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Builds a new Requirement with these fields that can be added to a RequirementsList.
+	 * @return the Requirement
+	 */
+	public Requirement toRequirement() {
+		return new Requirement(requirementId, state.getStateValue(), summary, acceptanceTestId, priority, estimate, developer, rejection);
+	}
+}
@@ -0,0 +1,98 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IdAllocator class hands out the requirementIds of one RequirementsList.
+ * The next free id is an AtomicInteger moved only by compare-and-set, so any number of threads can take ids, or whole blocks
+ * of ids for a bulk add, without a lock and without two of them ever getting the same id.
+ * @author mlee25 Michael Lee
+ */
+public class IdAllocator {
+
+	/** The next id that has not been handed out */
+	private final AtomicInteger next;
+
+	/** The largest id that may be handed out */
+	private final int last;
+
+	/**
+	 * Constructor for IdAllocator that starts at id 0 and may hand out every non-negative int.
+	 */
+	public IdAllocator() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constructor for IdAllocator that starts at id 0 and hands out ids up to a limit.
+	 * @param last the largest id that may be handed out
+	 * @throws IllegalArgumentException if last is negative
+	 */
+	public IdAllocator(int last) {
+		if (last < 0) {
+			throw new IllegalArgumentException("Invalid limit");
+		}
+		next = new AtomicInteger();
+		this.last = last;
+	}
+
+	/**
+	 * Takes the next id.
+	 * @return the id
+	 * @throws IllegalStateException if every id has been handed out
+	 */
+	public int next() {
+		return reserve(1);
+	}
+
+	/**
+	 * Takes a contiguous block of ids.  If the block would go past the largest id nothing is taken,
+	 * so a failed reserve never uses up ids.
+	 * @param count the number of ids
+	 * @return the first id of the block; the block is first through first + count - 1
+	 * @throws IllegalArgumentException if count is negative
+	 * @throws IllegalStateException if there are not count ids left
+	 */
+	public int reserve(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Invalid count");
+		}
+		while (true) {
+			int first = next.get();
+			if (first > Integer.MAX_VALUE - count || first + count - 1 > last) {
+				throw new IllegalStateException("No ids left");
+			}
+			if (next.compareAndSet(first, first + count)) {
+				return first;
+			}
+		}
+	}
+
+	/**
+	 * Makes sure an id that is already in use is never handed out, by moving the next id past it if it is not already.
+	 * @param id the id in use, or a negative number to do nothing
+	 * @throws IllegalStateException if id is the largest int, so no id could follow it
+	 */
+	public void advancePast(int id) {
+		while (true) {
+			int current = next.get();
+			if (current > id) {
+				return;
+			}
+			if (id == Integer.MAX_VALUE) {
+				throw new IllegalStateException("No ids left");
+			}
+			if (next.compareAndSet(current, id + 1)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the next id without taking it.
+	 * @return the id the next call to next would return if no other thread takes one first
+	 */
+	public int peek() {
+		return next.get();
+	}
+}
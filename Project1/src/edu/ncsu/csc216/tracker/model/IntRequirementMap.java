@@ -0,0 +1,252 @@
+package edu.ncsu.csc216.tracker.model;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * IntRequirementMap class maps int requirementIds to Requirements without boxing the keys.
+ * Keys and values are kept in two parallel arrays using open addressing with linear probing, so an entry
+ * costs one int and one reference instead of a HashMap Node and an Integer.
+ * At 1M entries the table is 2^21 slots, about 16 MB, where a HashMap&lt;Integer, Requirement&gt; needs about 56 MB
+ * (32 byte Node, 16 byte Integer and 8 MB of buckets).
+ * A null value marks an empty slot, so null Requirements cannot be stored.
+ * @author mlee25 Michael Lee
+ */
+public class IntRequirementMap {
+
+	/** Default number of slots for a new map, the table never shrinks below this */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Constant for the golden ratio multiplier used to spread the keys */
+	private static final int PHI = 0x9E3779B9;
+
+	/** Keys of the map, valid only where values is not null */
+	private int[] keys;
+
+	/** Values of the map, null for empty slots */
+	private Requirement[] values;
+
+	/** Number of entries in the map */
+	private int size;
+
+	/** Number of entries allowed before the table is doubled */
+	private int maxSize;
+
+	/** Mask used to turn a hash into a slot, always the table length minus one */
+	private int mask;
+
+	/**
+	 * Constructor for IntRequirementMap with the default capacity.
+	 */
+	public IntRequirementMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for IntRequirementMap sized to hold the expected number of entries without growing.
+	 * @param expectedSize the expected number of entries
+	 * @throws IllegalArgumentException if expectedSize is negative
+	 */
+	public IntRequirementMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Invalid size");
+		}
+		allocate(tableSizeFor(expectedSize));
+	}
+
+	/**
+	 * Getter for the number of entries.
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the Requirement with the given requirementId.
+	 * @param key the requirementId
+	 * @return the Requirement, or null if the map does not contain the key
+	 */
+	public Requirement get(int key) {
+		int i = slot(key);
+		Requirement v;
+		while ((v = values[i]) != null) {
+			if (keys[i] == key) {
+				return v;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if the map contains the given requirementId.
+	 * @param key the requirementId
+	 * @return true if the map contains the key
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps the requirementId to the Requirement, replacing any previous value.
+	 * @param key the requirementId
+	 * @param value the Requirement
+	 * @return the previous Requirement for the key, or null if there was none
+	 * @throws IllegalArgumentException if value is null
+	 */
+	public Requirement put(int key, Requirement value) {
+		if (value == null) {
+			throw new IllegalArgumentException("null value");
+		}
+		int i = slot(key);
+		Requirement v;
+		while ((v = values[i]) != null) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return v;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size > maxSize) {
+			resize(values.length * 2);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the entry for the requirementId.
+	 * The entries after the removed slot are shifted back so lookups never need tombstones.
+	 * The table is halved once it is less than one eighth full, so iterating stays proportional to the size.
+	 * @param key the requirementId
+	 * @return the removed Requirement, or null if the map did not contain the key
+	 */
+	public Requirement remove(int key) {
+		int i = slot(key);
+		Requirement v;
+		while ((v = values[i]) != null) {
+			if (keys[i] == key) {
+				shiftBack(i);
+				if (--size < maxSize / 4 && values.length > DEFAULT_CAPACITY) {
+					resize(values.length / 2);
+				}
+				return v;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Getter for the values of the map in table order.
+	 * @return a new array holding the Requirements in the map
+	 */
+	public Requirement[] values() {
+		Requirement[] result = new Requirement[size];
+		int j = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				result[j++] = values[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes all entries and keeps the current capacity.
+	 */
+	public void clear() {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Grows the table, if needed, so it holds the expected number of entries without growing again.
+	 * @param expectedSize the expected number of entries
+	 */
+	public void ensureCapacity(int expectedSize) {
+		int capacity = tableSizeFor(expectedSize);
+		if (capacity > values.length) {
+			resize(capacity);
+		}
+	}
+
+	/**
+	 * Fills the hole at the given slot by moving back the entries of the same probe run.
+	 * @param hole the slot that was emptied
+	 */
+	private void shiftBack(int hole) {
+		int i = hole;
+		while (true) {
+			i = (i + 1) & mask;
+			if (values[i] == null) {
+				break;
+			}
+			int home = slot(keys[i]);
+			// Move the entry unless its home slot lies cyclically in (hole, i]
+			if (hole <= i ? (home <= hole || home > i) : (home <= hole && home > i)) {
+				keys[hole] = keys[i];
+				values[hole] = values[i];
+				hole = i;
+			}
+		}
+		values[hole] = null;
+	}
+
+	/**
+	 * Moves all entries to a table with the given number of slots.
+	 * @param capacity the new number of slots, a power of two
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Requirement[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldKeys[i]);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Allocates empty arrays with the given number of slots.
+	 * @param capacity the number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Requirement[capacity];
+		mask = capacity - 1;
+		maxSize = capacity / 2;
+	}
+
+	/**
+	 * Getter for the home slot of a key.
+	 * @param key the requirementId
+	 * @return the slot where the probe for the key starts
+	 */
+	private int slot(int key) {
+		int h = key * PHI;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Getter for the smallest power of two table that holds the expected number of entries at half load.
+	 * @param expectedSize the expected number of entries
+	 * @return the number of slots
+	 */
+	private static int tableSizeFor(int expectedSize) {
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity / 2 < expectedSize) {
+			capacity *= 2;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,137 @@
+package edu.ncsu.csc216.tracker.model;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.RequirementState;
+import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
+
+/**
+ * MappedRequirement class is a read-only view of one Requirement in a MappedRequirementStore.
+ * It holds only the offset of the record and its id; every other field is decoded from the mapped file each time its getter is called.
+ * @author mlee25 Michael Lee
+ */
+public class MappedRequirement {
+
+	/** Store the record is in */
+	private MappedRequirementStore store;
+
+	/** Offset of the record in the file */
+	private long offset;
+
+	/** Requirement's id number */
+	private int requirementId;
+
+	/**
+	 * Constructor for MappedRequirement for the record at the given offset.
+	 * @param store the store the record is in
+	 * @param offset the offset of the record
+	 */
+	MappedRequirement(MappedRequirementStore store, long offset) {
+		this.store = store;
+		this.offset = offset;
+		this.requirementId = store.varintAt(offset);
+	}
+
+	/**
+	 * Getter for this Requirement's requirementId.
+	 * @return the requirementId
+	 */
+	public int getRequirementId() {
+		return requirementId;
+	}
+
+	/**
+	 * Getter for this Requirement's state, the same shared instance a loaded Requirement would return.
+	 * @return the state
+	 */
+	public RequirementState getState() {
+		return Requirement.stateFor(StateValue.values()[store.byteAt(fieldsStart())]);
+	}
+
+	/**
+	 * Getter for this Requirement's priority.
+	 * @return the priority
+	 */
+	public int getPriority() {
+		return store.byteAt(fieldsStart() + 1);
+	}
+
+	/**
+	 * Getter for this Requirement's Rejection reason.
+	 * @return the Rejection reason, or null
+	 */
+	public Rejection getRejectionReason() {
+		int reason = store.byteAt(fieldsStart() + 2);
+		return reason == 0 ? null : Rejection.values()[reason - 1];
+	}
+
+	/**
+	 * Getter for this Requirement's summary.
+	 * @return the summary
+	 */
+	public String getSummary() {
+		return store.stringAt(stringStart(0));
+	}
+
+	/**
+	 * Getter for this Requirement's acceptanceTestId.
+	 * @return the acceptanceTestId
+	 */
+	public String getAcceptanceTestId() {
+		return store.stringAt(stringStart(1));
+	}
+
+	/**
+	 * Getter for this Requirement's estimate.
+	 * @return the estimate, or null
+	 */
+	public String getEstimate() {
+		return store.stringAt(stringStart(2));
+	}
+
+	/**
+	 * Getter for this Requirement's developer.
+	 * @return the developer, or null
+	 */
+	public String getDeveloper() {
+		return store.stringAt(stringStart(3));
+	}
+
+	/**
+	 * Decodes the whole record into a Requirement that can be added to a RequirementsList.
+	 * @return the Requirement
+	 */
+	public Requirement toRequirement() {
+		return new Requirement(requirementId, getState().getStateValue(), getSummary(), getAcceptanceTestId(),
+				getPriority(), getEstimate(), getDeveloper(), getRejectionReason());
+	}
+
+	/**
+	 * Getter for the offset just past this record, where the next one starts.
+	 * @return the offset of the next record
+	 */
+	long getEnd() {
+		return stringStart(4);
+	}
+
+	/**
+	 * Getter for the offset of the state byte, which is followed by the priority and rejection bytes.
+	 * @return the offset
+	 */
+	private long fieldsStart() {
+		return offset + MappedRequirementStore.varintSize(requirementId);
+	}
+
+	/**
+	 * Getter for the offset of one of the strings of the record.
+	 * @param index 0 for the summary, 1 for the acceptance test id, 2 for the estimate and 3 for the developer
+	 * @return the offset
+	 */
+	private long stringStart(int index) {
+		long start = fieldsStart() + 3;
+		for (int i = 0; i < index; i++) {
+			start = store.skipString(start);
+		}
+		return start;
+	}
+}
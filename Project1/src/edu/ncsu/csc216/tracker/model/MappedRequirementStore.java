@@ -0,0 +1,263 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedRequirementStore class opens a version 2 snapshot written by RequirementsSnapshotWriter read-only, without loading it.
+ * The file is memory-mapped in chunks of 1 GB, so it can be larger than one MappedByteBuffer allows, and the only things on the heap
+ * are the chunk buffers and the MappedRequirement views handed out.  A Requirement is found by a binary search of the id index
+ * at the end of the file, and its strings are decoded only when a getter asks for them.
+ * @author mlee25 Michael Lee
+ */
+public class MappedRequirementStore implements Closeable {
+
+	/** Default log2 of the chunk size */
+	private static final int CHUNK_BITS = 30;
+
+	/** Size in bytes of one (id, offset) entry of the index */
+	private static final int INDEX_ENTRY = 12;
+
+	/** Size in bytes of the footer after the index */
+	private static final int FOOTER = 12;
+
+	/** Channel of the snapshot file */
+	private FileChannel channel;
+
+	/** Mapped chunks of the file, each covering 1 &lt;&lt; chunkBits bytes */
+	private MappedByteBuffer[] chunks;
+
+	/** log2 of the chunk size */
+	private int chunkBits;
+
+	/** Number of Requirements in the file */
+	private int count;
+
+	/** Offset of the first Requirement */
+	private long dataStart;
+
+	/** Offset of the index */
+	private long indexStart;
+
+	/**
+	 * Constructor for MappedRequirementStore that maps the specified snapshot file.
+	 * @param filename snapshot file to map
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @throws IllegalArgumentException if the file is not a snapshot with an index
+	 */
+	public MappedRequirementStore(String filename) throws IOException {
+		this(filename, CHUNK_BITS);
+	}
+
+	/**
+	 * Constructor for MappedRequirementStore that maps the specified snapshot file in chunks of the given size.
+	 * @param filename snapshot file to map
+	 * @param chunkBits log2 of the chunk size
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @throws IllegalArgumentException if the file is not a snapshot with an index
+	 */
+	MappedRequirementStore(String filename, int chunkBits) throws IOException {
+		this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		this.chunkBits = chunkBits;
+		try {
+			long size = channel.size();
+			long chunkSize = 1L << chunkBits;
+			chunks = new MappedByteBuffer[(int) ((size + chunkSize - 1) >>> chunkBits)];
+			for (int i = 0; i < chunks.length; i++) {
+				long start = (long) i << chunkBits;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+			}
+			readHeader(size);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		} catch (IllegalArgumentException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Getter for the number of Requirements in the store.
+	 * @return the number of Requirements
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Getter for a read-only view of the Requirement with the given id, found by a binary search of the index.
+	 * @param requirementId the id of the Requirement
+	 * @return the view, or null if there is no Requirement with the id
+	 */
+	public MappedRequirement getRequirementById(int requirementId) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long entry = indexStart + (long) mid * INDEX_ENTRY;
+			int id = (int) fixedAt(entry, 4);
+			if (id < requirementId) {
+				low = mid + 1;
+			} else if (id > requirementId) {
+				high = mid - 1;
+			} else {
+				return new MappedRequirement(this, fixedAt(entry + 4, 8));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets a 2D Object array like RequirementsTrackerModel.getRequirementListAsArray, in the order the Requirements were saved.
+	 * Each row holds the id number, the shared state and the summary, which is the only string decoded.
+	 * @return the 2D Object array
+	 */
+	public Object[][] getRequirementListAsArray() {
+		Object[][] result = new Object[count][3];
+		long offset = dataStart;
+		for (int i = 0; i < count; i++) {
+			MappedRequirement r = new MappedRequirement(this, offset);
+			result[i][0] = r.getRequirementId();
+			result[i][1] = r.getState();
+			result[i][2] = r.getSummary();
+			offset = r.getEnd();
+		}
+		return result;
+	}
+
+	/**
+	 * Closes the file.  Views handed out must not be used afterwards.
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Getter for the byte at an offset in the file.
+	 * @param offset the offset
+	 * @return the byte as an int from 0 to 255
+	 */
+	int byteAt(long offset) {
+		return chunks[(int) (offset >>> chunkBits)].get((int) (offset & ((1L << chunkBits) - 1))) & 0xFF;
+	}
+
+	/**
+	 * Getter for a big-endian value of the given number of bytes at an offset in the file.
+	 * @param offset the offset
+	 * @param bytes the number of bytes
+	 * @return the value
+	 */
+	long fixedAt(long offset, int bytes) {
+		long v = 0;
+		for (int i = 0; i < bytes; i++) {
+			v = v << 8 | byteAt(offset + i);
+		}
+		return v;
+	}
+
+	/**
+	 * Getter for the varint at an offset in the file.
+	 * @param offset the offset
+	 * @return the value
+	 */
+	int varintAt(long offset) {
+		int v = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = byteAt(offset++);
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return v;
+			}
+		}
+		throw new IllegalArgumentException("Invalid snapshot file");
+	}
+
+	/**
+	 * Getter for the number of bytes the varint for a value takes.
+	 * @param v the value
+	 * @return the number of bytes
+	 */
+	static int varintSize(int v) {
+		int size = 1;
+		while ((v & ~0x7F) != 0) {
+			v >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Getter for the offset just past the string at an offset in the file.
+	 * @param offset the offset of the string
+	 * @return the offset of whatever follows it
+	 */
+	long skipString(long offset) {
+		int lengthPlusOne = varintAt(offset);
+		return offset + varintSize(lengthPlusOne) + Math.max(lengthPlusOne - 1, 0);
+	}
+
+	/**
+	 * Decodes the string at an offset in the file.
+	 * @param offset the offset of the string
+	 * @return the string, or null
+	 */
+	String stringAt(long offset) {
+		int length = varintAt(offset) - 1;
+		if (length < 0) {
+			return null;
+		}
+		long start = offset + varintSize(length + 1);
+		MappedByteBuffer chunk = chunks[(int) (start >>> chunkBits)];
+		int inChunk = (int) (start & ((1L << chunkBits) - 1));
+		byte[] bytes = new byte[length];
+		if (inChunk + length <= chunk.limit()) {
+			for (int i = 0; i < length; i++) {
+				bytes[i] = chunk.get(inChunk + i);
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				bytes[i] = (byte) byteAt(start + i);
+			}
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the header and footer of the file.
+	 * @param size the size of the file
+	 * @throws IllegalArgumentException if the file is not a snapshot with an index
+	 */
+	private void readHeader(long size) {
+		long headerSize = RequirementsSnapshotWriter.MAGIC.length + 1;
+		if (size < headerSize + 1 + FOOTER) {
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+		for (int i = 0; i < RequirementsSnapshotWriter.MAGIC.length; i++) {
+			if (byteAt(i) != RequirementsSnapshotWriter.MAGIC[i]) {
+				throw new IllegalArgumentException("Invalid snapshot file");
+			}
+		}
+		for (int i = 0; i < RequirementsSnapshotWriter.INDEX_MAGIC.length; i++) {
+			if (byteAt(size - 4 + i) != RequirementsSnapshotWriter.INDEX_MAGIC[i]) {
+				throw new IllegalArgumentException("Invalid snapshot file");
+			}
+		}
+		if (byteAt(RequirementsSnapshotWriter.MAGIC.length) < 2) {
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+		count = varintAt(headerSize);
+		dataStart = headerSize + varintSize(count);
+		indexStart = fixedAt(size - FOOTER, 8);
+		if (indexStart < dataStart || indexStart + (long) count * INDEX_ENTRY != size - FOOTER) {
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * PostingList class holds a sorted set of requirementIds for one key of an index, such as a word or a trigram.
+ * Since new requirementIds are larger than the ones before them, adding a Requirement almost always appends.
+ * @author mlee25 Michael Lee
+ */
+class PostingList {
+
+	/** Sorted requirementIds, valid up to size */
+	private int[] ids = new int[4];
+
+	/** Number of requirementIds */
+	private int size;
+
+	/**
+	 * Getter for the number of requirementIds.
+	 * @return the number of requirementIds
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the requirementId at a position.
+	 * @param i the position, less than size
+	 * @return the requirementId
+	 */
+	int get(int i) {
+		return ids[i];
+	}
+
+	/**
+	 * Getter for a copy of the requirementIds.
+	 * @return the requirementIds in increasing order
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Adds a requirementId, appending if it is larger than every other one.
+	 * @param id the requirementId
+	 */
+	void add(int id) {
+		int at = size;
+		if (size > 0 && ids[size - 1] >= id) {
+			at = Arrays.binarySearch(ids, 0, size, id);
+			if (at >= 0) {
+				return;
+			}
+			at = -at - 1;
+		}
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		System.arraycopy(ids, at, ids, at + 1, size - at);
+		ids[at] = id;
+		size++;
+	}
+
+	/**
+	 * Removes a requirementId if it is present.
+	 * @param id the requirementId
+	 */
+	void remove(int id) {
+		int at = Arrays.binarySearch(ids, 0, size, id);
+		if (at >= 0) {
+			System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+			size--;
+			if (size > 4 && size < ids.length / 4) {
+				ids = Arrays.copyOf(ids, ids.length / 2);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the requirementIds that are in every one of the lists, intersecting them from the shortest up.
+	 * @param lists the lists, at least one
+	 * @return the requirementIds in increasing order
+	 */
+	static int[] intersect(PostingList[] lists) {
+		PostingList[] sorted = lists.clone();
+		Arrays.sort(sorted, new Comparator<PostingList>() {
+			@Override
+			public int compare(PostingList p1, PostingList p2) {
+				return Integer.compare(p1.size, p2.size);
+			}
+		});
+		int[] result = Arrays.copyOf(sorted[0].ids, sorted[0].size);
+		int size = result.length;
+		for (int i = 1; i < sorted.length && size > 0; i++) {
+			size = sorted[i].retain(result, size);
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Keeps only the first size entries of a sorted array that are also in this list, moving them to the front.
+	 * Walks both lists together, or binary searches this list when the array is much shorter.
+	 * @param other sorted requirementIds
+	 * @param otherSize number of valid entries of other
+	 * @return the number of entries kept
+	 */
+	private int retain(int[] other, int otherSize) {
+		int kept = 0;
+		if (otherSize * 16 < size) {
+			int from = 0;
+			for (int i = 0; i < otherSize; i++) {
+				int at = Arrays.binarySearch(ids, from, size, other[i]);
+				if (at >= 0) {
+					other[kept++] = other[i];
+					from = at + 1;
+				} else {
+					from = -at - 1;
+				}
+			}
+		} else {
+			int j = 0;
+			for (int i = 0; i < otherSize && j < size; i++) {
+				while (j < size && ids[j] < other[i]) {
+					j++;
+				}
+				if (j < size && ids[j] == other[i]) {
+					other[kept++] = other[i];
+				}
+			}
+		}
+		return kept;
+	}
+}
@@ -0,0 +1,120 @@
+package edu.ncsu.csc216.tracker.model;
+
+import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
+
+/**
+ * RequirementEvent class describes one change to the RequirementsList of a RequirementsTrackerModel,
+ * as delivered to a RequirementEventListener.  Events are immutable.
+ * @author mlee25 Michael Lee
+ */
+public final class RequirementEvent {
+
+	/**
+	 * Enumeration that names the kinds of change.
+	 */
+	public enum Type {
+
+		/** Requirement was added, in the Submitted state unless it replaced one */
+		ADDED,
+
+		/** Requirement was deleted */
+		DELETED,
+
+		/** Command moved the Requirement from one state to another, or back to the same state */
+		TRANSITIONED,
+
+		/**
+		 * Developer or acceptance test id was set directly rather than by a Command, so from and to are both its state
+		 * and command is null.  A Command that changes them is delivered only as TRANSITIONED.
+		 */
+		UPDATED,
+
+		/** Whole RequirementsList was replaced, by a new list or a load, so anything built from it must be rebuilt */
+		RELOADED
+	}
+
+	/** Kind of change */
+	private final Type type;
+
+	/** Requirement's id number, or -1 for RELOADED */
+	private final int requirementId;
+
+	/** State before the change, or null for ADDED and RELOADED */
+	private final StateValue from;
+
+	/** State after the change, or null for DELETED and RELOADED */
+	private final StateValue to;
+
+	/** Command that caused a TRANSITIONED event, otherwise null */
+	private final CommandValue command;
+
+	/**
+	 * Constructor for RequirementEvent.
+	 * @param type the kind of change
+	 * @param requirementId the Requirement's id number, or -1 for RELOADED
+	 * @param from the state before the change, or null
+	 * @param to the state after the change, or null
+	 * @param command the Command that caused a TRANSITIONED event, or null
+	 */
+	RequirementEvent(Type type, int requirementId, StateValue from, StateValue to, CommandValue command) {
+		this.type = type;
+		this.requirementId = requirementId;
+		this.from = from;
+		this.to = to;
+		this.command = command;
+	}
+
+	/**
+	 * Getter for the kind of change.
+	 * @return the type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Getter for the id number of the Requirement that changed.
+	 * @return the requirementId, or -1 for RELOADED
+	 */
+	public int getRequirementId() {
+		return requirementId;
+	}
+
+	/**
+	 * Getter for the state the Requirement was in before the change.
+	 * @return the StateValue, or null for ADDED and RELOADED
+	 */
+	public StateValue getFrom() {
+		return from;
+	}
+
+	/**
+	 * Getter for the state the Requirement is in after the change.
+	 * @return the StateValue, or null for DELETED and RELOADED
+	 */
+	public StateValue getTo() {
+		return to;
+	}
+
+	/**
+	 * Getter for the Command that moved the Requirement.
+	 * @return the CommandValue for TRANSITIONED, otherwise null
+	 */
+	public CommandValue getCommand() {
+		return command;
+	}
+
+	/**
+	 * Returns a short description of the event, such as "TRANSITIONED 3 SUBMITTED->ACCEPTED (ACCEPT)".
+	 * @return the description
+	 */
+	@Override
+	public String toString() {
+		if (type == Type.RELOADED) {
+			return type.toString();
+		}
+		String s = type + " " + requirementId + " " + from + "->" + to;
+		return command == null ? s : s + " (" + command + ")";
+	}
+}
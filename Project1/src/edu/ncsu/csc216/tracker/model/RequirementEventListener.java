@@ -0,0 +1,24 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.List;
+
+/**
+ * Interface for objects that react to changes to the RequirementsList of a RequirementsTrackerModel,
+ * such as views, indexes, metrics or a journal, instead of rebuilding everything after each action.
+ * Listeners are added with {@link RequirementsTrackerModel#addEventListener(RequirementEventListener)}.
+ *
+ * @author mlee25 Michael Lee
+ */
+public interface RequirementEventListener {
+
+	/**
+	 * Called once for each call to the model that changed the RequirementsList, with every change it made in order.
+	 * Batches are delivered one at a time and in the order the changes were made, after the model's lock is released,
+	 * so the model may already have changed further by the time the listener reads it.
+	 * The listener may call the model, including methods that change it; those changes are delivered in a later batch.
+	 * An exception thrown by the listener goes to the thread's uncaught exception handler.
+	 * @param events the changes, never empty; the list cannot be modified
+	 */
+	void requirementsChanged(List<RequirementEvent> events);
+
+}
@@ -1,15 +1,25 @@
 package edu.ncsu.csc216.tracker.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import edu.ncsu.csc216.tracker.requirement.Command;
 import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.RequirementListener;
+import edu.ncsu.csc216.tracker.requirement.RequirementState;
+import edu.ncsu.csc216.tracker.requirement.StringPool;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 import edu.ncsu.csc216.tracker.xml.Req;
 
 /**
  * RequirementsList class maintains a ArrayList of Requirements.  
  * Can add and remove a Requirement from the List, search for a Requirement in the List, update a Requirement in the List through execution of a Command, return the entire List or sublists of itself.
+ * RequirementsList is not synchronized; RequirementsTrackerModel locks around it when it is shared between threads.
  * @author mlee25 Michael Lee
  */
 public class RequirementsList {
@@ -19,50 +29,315 @@ public class RequirementsList {
 	/** Instance variable for List of Requirements */
 	private ArrayList<Requirement> reqs;
 	
+	/** Index of the Requirements in reqs keyed by requirementId */
+	private IntRequirementMap reqsById;
+	
+	/** Number of deleted Requirements not yet removed from reqs */
+	private int deletedCount;
+	
+	/** Requirements in each state keyed by requirementId, indexed by StateValue ordinal */
+	private IntRequirementMap[] reqsByState;
+	
+	/** Listener that keeps the indexes up to date when a Requirement in the list changes */
+	private RequirementListener indexer;
+	
+	/** Ids of the Requirements added, changed or deleted since the last call to clearChanges */
+	private BitSet changedIds;
+	
+	/** Point-in-time view as of the last call to getView */
+	private RequirementsView view;
+	
+	/** Ids of the Requirements added, changed or deleted since the last call to getView */
+	private BitSet viewChangedIds;
+	
+	/** Running totals of the parsed estimates by state, priority and developer */
+	private EstimateTotals estimates;
+	
+	/** Inverted index from the words of the summaries to requirementIds */
+	private SummaryIndex summaries;
+	
+	/** Trigram index from substrings of the acceptance test ids to requirementIds */
+	private TrigramIndex testIds;
+	
+	/** Index from each developer to the requirementIds assigned to them */
+	private DeveloperIndex developers;
+	
+	/** Accepted Requirements by priority */
+	private WorkQueue acceptedQueue;
+	
+	/** Working Requirements by priority */
+	private WorkQueue workingQueue;
+	
+	/** Source of the requirementIds of new Requirements in this list */
+	private IdAllocator idAllocator;
+	
+	/** Shared instances of the strings of the Requirements in this list */
+	private StringPool strings;
+	
+	/** Changes made since the last call to takeEvents, or null if changes are not being recorded */
+	private ArrayList<RequirementEvent> events;
+	
 	/**
 	 * Constructor for RequirementsList.  
+	 * The list shares the strings of its Requirements through its own StringPool.
+	 * The list gives out requirementIds from its own IdAllocator, starting at 0; the Requirement counter is only
+	 * reset for Requirements created on their own.
 	 */
 	public RequirementsList() {
 	// When creating a new RequirementsList, reset the Requirements counter to 0. 
 			reqs = new ArrayList<Requirement>();
+			reqsById = new IntRequirementMap();
+			deletedCount = 0;
+			reqsByState = new IntRequirementMap[StateValue.values().length];
+			for (int i = 0; i < reqsByState.length; i++) {
+				reqsByState[i] = new IntRequirementMap();
+			}
+			indexer = new Indexer();
+			changedIds = new BitSet();
+			view = RequirementsView.EMPTY;
+			viewChangedIds = new BitSet();
+			estimates = new EstimateTotals();
+			summaries = new SummaryIndex();
+			testIds = new TrigramIndex();
+			developers = new DeveloperIndex();
+			acceptedQueue = new WorkQueue();
+			workingQueue = new WorkQueue();
+			idAllocator = new IdAllocator(Requirement.MAX_ID);
+			strings = new StringPool();
 			Requirement.setCounter(0);
 	}
 	
 	/**
-	 * Adds a Requirement to the list and handles the counter.  
+	 * Adds a Requirement to the list with the next requirementId from the list's IdAllocator.
 	 * @param summary the Requirement's summary
 	 * @param acceptanceTestId the Requirement's acceptanceTestId
 	 * @return the requirementId assigned to this Requirement
+	 * @throws IllegalArgumentException if the summary or acceptance test id is null
+	 * @throws IllegalStateException if every requirementId up to Requirement.MAX_ID has been handed out
 	 */
 	public int addRequirement(String summary, String acceptanceTestId) {
-		Requirement r = new Requirement(summary, acceptanceTestId);
-		reqs.add(r);
+		if (summary == null || acceptanceTestId == null) {
+			throw new IllegalArgumentException("null summary or id");
+		}
+		Requirement r = new Requirement(idAllocator.next(), StateValue.SUBMITTED, summary, acceptanceTestId, 0, null, null, null);
+		add(r);
 		return r.getRequirementId();
 	}
 	
 	/**
-	 * Adds Requirements from a List of XML Req objects.
+	 * Adds a Submitted Requirement with a requirementId that was handed out before, such as one replayed from a CommandJournal.
+	 * The IdAllocator is moved past the requirementId so it is not handed out again.
+	 * @param requirementId the requirementId
+	 * @param summary the Requirement's summary
+	 * @param acceptanceTestId the Requirement's acceptanceTestId
+	 * @throws IllegalArgumentException if the requirementId is negative or larger than Requirement.MAX_ID,
+	 * or the summary or acceptance test id is null
+	 */
+	void addRequirement(int requirementId, String summary, String acceptanceTestId) {
+		add(new Requirement(requirementId, StateValue.SUBMITTED, summary, acceptanceTestId, 0, null, null, null));
+		idAllocator.advancePast(requirementId);
+	}
+	
+	/**
+	 * Getter for the requirementId the next Requirement added to the list will get.
+	 * @return the next requirementId
+	 */
+	public int getNextRequirementId() {
+		return idAllocator.peek();
+	}
+	
+	/**
+	 * Adds many new Requirements at once, the summary at each position with the acceptance test id at the same position.
+	 * The storage is grown once for all of them and they are given one contiguous block of requirementIds,
+	 * reserved from the IdAllocator in one step instead of once for each Requirement.
+	 * Nothing is added, and no requirementId is used up, if any summary or acceptance test id is null
+	 * or the block would go past Requirement.MAX_ID.
+	 * @param summaries the summaries
+	 * @param acceptanceTestIds the acceptance test ids, as many as summaries
+	 * @return the requirementId of the first Requirement added; the others follow it in order
+	 * @throws IllegalArgumentException if the arrays are not the same length or hold a null
+	 * @throws IllegalStateException if there are not enough requirementIds left up to Requirement.MAX_ID
+	 */
+	public int addRequirements(String[] summaries, String[] acceptanceTestIds) {
+		if (summaries.length != acceptanceTestIds.length) {
+			throw new IllegalArgumentException("Invalid batch");
+		}
+		for (int i = 0; i < summaries.length; i++) {
+			if (summaries[i] == null || acceptanceTestIds[i] == null) {
+				throw new IllegalArgumentException("null summary or id");
+			}
+		}
+		int first = idAllocator.reserve(summaries.length);
+		reqs.ensureCapacity(reqs.size() + summaries.length);
+		reqsById.ensureCapacity(reqsById.size() + summaries.length);
+		IntRequirementMap submitted = reqsByState[StateValue.SUBMITTED.ordinal()];
+		submitted.ensureCapacity(submitted.size() + summaries.length);
+		for (int i = 0; i < summaries.length; i++) {
+			add(new Requirement(first + i, StateValue.SUBMITTED, summaries[i], acceptanceTestIds[i], 0, null, null, null));
+		}
+		return first;
+	}
+	
+	/**
+	 * Adds Requirements from a List of XML Req objects, each as a new Submitted Requirement with the next requirementId.
 	 * @param xmlReqs the List of XML Req objects
 	 */
 	public void addXMLReqs(List<Req> xmlReqs) {
-		Requirement requirement = null;
-		int maxId = 0;
 		for (int i = 0; i < xmlReqs.size(); i++) {
-			requirement = new Requirement(xmlReqs.get(i));
-			reqs.add(requirement);
+			addRequirement(xmlReqs.get(i).getSummary(), xmlReqs.get(i).getTest());
+		}
+	}
+	
+	/**
+	 * Adds the Requirements read by a RequirementsXMLReader, one at a time as they are read.
+	 * Each Requirement keeps the id and state it was saved with, and the IdAllocator is moved past the largest requirementId.
+	 * @param reader the reader to take Requirements from until it has no more
+	 * @throws IllegalArgumentException if the reader finds an invalid Requirement
+	 */
+	public void addXMLReqs(RequirementsXMLReader reader) {
+		Requirement requirement = null;
+		int maxId = -1;
+		while ((requirement = reader.next()) != null) {
+			add(requirement);
 			if (requirement.getRequirementId() > maxId) {
 				maxId = requirement.getRequirementId();
 			}
 		}
-		Requirement.setCounter(maxId);
+		idAllocator.advancePast(maxId);
 	}
 
 	/**
-	 * Getter for an ArrayList of Requirements.
+	 * Adds the Requirements read by a RequirementsSnapshotReader, presizing the list for the number in the snapshot.
+	 * Each Requirement keeps the id and state it was saved with, and the IdAllocator is moved past the largest requirementId.
+	 * @param reader the reader to take Requirements from until it has no more
+	 * @throws IOException if the snapshot cannot be read
+	 * @throws IllegalArgumentException if the reader finds an invalid Requirement
+	 */
+	public void addSnapshotReqs(RequirementsSnapshotReader reader) throws IOException {
+		Requirement requirement = null;
+		int maxId = -1;
+		reqs.ensureCapacity(reqs.size() + reader.getCount());
+		reqsById.ensureCapacity(reqsById.size() + reader.getCount());
+		while ((requirement = reader.next()) != null) {
+			add(requirement);
+			if (requirement.getRequirementId() > maxId) {
+				maxId = requirement.getRequirementId();
+			}
+		}
+		idAllocator.advancePast(maxId);
+	}
+	
+	/**
+	 * Applies the changes read by a RequirementsXMLReader opened with openChanges, in the order they were saved.
+	 * A changed Requirement replaces the one with the same id and keeps its place in the list, and a new one is added at the end.
+	 * The IdAllocator is moved past the largest requirementId added if it is not already.
+	 * @param reader the reader to take changes from until it has no more
+	 * @throws IllegalArgumentException if the reader finds an invalid Requirement
+	 */
+	public void addXMLChanges(RequirementsXMLReader reader) {
+		int maxId = -1;
+		while (reader.nextChange()) {
+			Requirement requirement = reader.getRequirement();
+			if (requirement == null) {
+				deleteRequirementById(reader.getDeletedId());
+			} else {
+				add(requirement);
+				if (requirement.getRequirementId() > maxId) {
+					maxId = requirement.getRequirementId();
+				}
+			}
+		}
+		idAllocator.advancePast(maxId);
+	}
+	
+	/**
+	 * Returns true if a Requirement was added, changed by a Command or deleted since the last call to clearChanges.
+	 * @return true if there are changes
+	 */
+	public boolean hasChanges() {
+		return !changedIds.isEmpty();
+	}
+	
+	/**
+	 * Getter for the number of requirementIds added, changed or deleted since the last call to clearChanges.
+	 * @return the number of changed requirementIds
+	 */
+	public int getChangeCount() {
+		return changedIds.cardinality();
+	}
+	
+	/**
+	 * Writes each Requirement added or changed since the last call to clearChanges, and a deletion for each one deleted, in id order.
+	 * Only the changed Requirements are visited.
+	 * @param writer the writer for the changes
+	 * @throws IOException if the changes cannot be written
+	 */
+	public void writeChanges(RequirementsXMLWriter writer) throws IOException {
+		for (int id = changedIds.nextSetBit(0); id >= 0; id = changedIds.nextSetBit(id + 1)) {
+			Requirement r = reqsById.get(id);
+			if (r == null) {
+				writer.writeDeleted(id);
+			} else {
+				writer.write(r);
+			}
+		}
+	}
+	
+	/**
+	 * Forgets the changes so far, after they have been saved.
+	 */
+	public void clearChanges() {
+		changedIds.clear();
+	}
+	
+	/**
+	 * Getter for a copy of the list with new Requirements that have the same fields and the same changes since it was saved,
+	 * so a replay can be tried on the copy and dropped if it fails.
+	 * @return the copy
+	 */
+	RequirementsList copy() {
+		RequirementsList copy = new RequirementsList();
+		ArrayList<Requirement> list = getRequirements();
+		for (int i = 0; i < list.size(); i++) {
+			copy.add(new FrozenRequirement(list.get(i)).toRequirement());
+		}
+		copy.idAllocator.advancePast(idAllocator.peek() - 1);
+		copy.changedIds = (BitSet) changedIds.clone();
+		return copy;
+	}
+	
+	/**
+	 * Getter for an immutable point-in-time view of the Requirements, ordered by requirementId.
+	 * The view is brought up to date by copying only the trie paths and FrozenRequirements of the Requirements changed since
+	 * the last view, which shares everything else; later changes to the list never show up in a view already returned.
+	 * @return the view
+	 */
+	public RequirementsView getView() {
+		int count = viewChangedIds.cardinality();
+		if (count > 0) {
+			int[] ids = new int[count];
+			FrozenRequirement[] values = new FrozenRequirement[count];
+			int n = 0;
+			for (int id = viewChangedIds.nextSetBit(0); id >= 0; id = viewChangedIds.nextSetBit(id + 1)) {
+				Requirement r = reqsById.get(id);
+				ids[n] = id;
+				values[n] = r == null ? null : new FrozenRequirement(r);
+				n++;
+			}
+			view = view.update(ids, values, n);
+			viewChangedIds.clear();
+		}
+		return view;
+	}
+
+	/**
+	 * Getter for an ArrayList of Requirements in the order they were added.
+	 * Does not change the list, so it can be called by several readers at once; if Requirements were deleted since the
+	 * list was last compacted, the result is a new ArrayList without them.
 	 * @return the ArrayList of Requirements
 	 */
 	public ArrayList<Requirement> getRequirements() {
-		return reqs;
+		return deletedCount == 0 ? reqs : live();
 	}
 	
 	/**
@@ -71,15 +346,172 @@ public class RequirementsList {
 	 * @return the Requirement
 	 */
 	public Requirement getRequirementById(int requirementId) {
-		// When working with methods that receive a requirementId parameter, there is no need to error check or throw an exception if the requirementId does not exist in the list. For getRequirementById, return null. 
-		// For all other methods, do not change the internal state of the list.
-		// Requirement r = null;
-		for (int i = 0; i < reqs.size(); i++) {
-			if (reqs.get(i).getRequirementId() == requirementId) {
-				return reqs.get(i);
+		return reqsById.get(requirementId);
+	}
+	
+	/**
+	 * Getter for the number of Requirements in the given state.
+	 * @param state the StateValue of the state
+	 * @return the number of Requirements in the state
+	 */
+	public int getStateCount(StateValue state) {
+		return reqsByState[state.ordinal()].size();
+	}
+	
+	/**
+	 * Getter for the total estimate in minutes of the Requirements in the given state.
+	 * Only estimates that could be parsed are counted, and the total is kept up to date so no Requirement is visited.
+	 * @param state the StateValue of the state
+	 * @return the total estimate in minutes
+	 */
+	public long getTotalEstimate(StateValue state) {
+		return estimates.getByState(state);
+	}
+	
+	/**
+	 * Getter for the total estimate in minutes of the Requirements with the given priority.
+	 * @param priority the priority, 1 to 3
+	 * @return the total estimate in minutes, 0 if the priority is out of range
+	 */
+	public long getTotalEstimateByPriority(int priority) {
+		return estimates.getByPriority(priority);
+	}
+	
+	/**
+	 * Getter for the total estimate in minutes of the Requirements assigned to the given developer.
+	 * @param developer the developer
+	 * @return the total estimate in minutes
+	 */
+	public long getTotalEstimateByDeveloper(String developer) {
+		return estimates.getByDeveloper(developer);
+	}
+	
+	/**
+	 * Getter for a one line report of the StringPool shared by the Requirements in the list:
+	 * how many strings it holds, how many duplicates it replaced and about how many bytes that saved.
+	 * @return the report
+	 */
+	public String getStringPoolReport() {
+		return strings.getReport();
+	}
+	
+	/**
+	 * Searches the summaries for words, ignoring case, using the inverted index instead of visiting the Requirements.
+	 * @param query the words to look for; anything but letters and digits separates words
+	 * @param matchAll true to find the summaries with every word, false for the summaries with any of the words
+	 * @return the requirementIds found, in increasing order
+	 */
+	public int[] searchSummaries(String query, boolean matchAll) {
+		return matchAll ? summaries.searchAll(query) : summaries.searchAny(query);
+	}
+	
+	/**
+	 * Searches the acceptance test ids for a substring, matching case.
+	 * A substring of three or more characters is looked up in the trigram index and only the candidates it gives are checked;
+	 * a shorter one is checked against every Requirement.
+	 * @param substring the substring to look for
+	 * @return the requirementIds whose acceptance test ids contain the substring, in increasing order
+	 */
+	public int[] searchAcceptanceTestIds(String substring) {
+		if (substring.length() < TrigramIndex.GRAM) {
+			Requirement[] all = reqsById.values();
+			BitSet matches = new BitSet();
+			for (int i = 0; i < all.length; i++) {
+				if (all[i].getAcceptanceTestId().contains(substring)) {
+					matches.set(all[i].getRequirementId());
+				}
+			}
+			int[] found = new int[matches.cardinality()];
+			int n = 0;
+			for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+				found[n++] = id;
+			}
+			return found;
+		}
+		int[] found = testIds.candidates(substring);
+		int n = 0;
+		for (int i = 0; i < found.length; i++) {
+			if (reqsById.get(found[i]).getAcceptanceTestId().contains(substring)) {
+				found[n++] = found[i];
+			}
+		}
+		return Arrays.copyOf(found, n);
+	}
+	
+	/**
+	 * Getter for the Requirements assigned to the given developer, using the developer index instead of visiting every Requirement.
+	 * @param developer the developer
+	 * @return a new ArrayList of the developer's Requirements, ordered by requirementId
+	 */
+	public ArrayList<Requirement> getRequirementsByDeveloper(String developer) {
+		int[] ids = developers.get(developer);
+		ArrayList<Requirement> result = new ArrayList<Requirement>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			result.add(reqsById.get(ids[i]));
+		}
+		return result;
+	}
+	
+	/**
+	 * Getter for the number of Requirements assigned to the given developer without visiting the Requirements.
+	 * @param developer the developer
+	 * @return the number of Requirements
+	 */
+	public int getDeveloperCount(String developer) {
+		return developers.count(developer);
+	}
+	
+	/**
+	 * Getter for the Accepted Requirement to work on next, the one with the highest priority (1) and then the lowest requirementId.
+	 * Found in O(log n) from a queue that is kept up to date as Requirements change.
+	 * @param includeWorking true to also consider the Requirements that are already being worked on
+	 * @return the next Requirement, or null if there is none
+	 */
+	public Requirement peekNextRequirement(boolean includeWorking) {
+		long key = acceptedQueue.firstKey();
+		if (includeWorking) {
+			long workingKey = workingQueue.firstKey();
+			if (key < 0 || (workingKey >= 0 && workingKey < key)) {
+				key = workingKey;
 			}
 		}
-		return null;
+		return key < 0 ? null : reqsById.get(WorkQueue.idOf(key));
+	}
+	
+	/**
+	 * Assigns the next Accepted Requirement, as found by peekNextRequirement, to a developer, which moves it to Working.
+	 * @param developer the developer
+	 * @return the Requirement that was assigned, or null if no Requirement is Accepted
+	 */
+	public Requirement assignNextRequirement(String developer) {
+		Requirement r = peekNextRequirement(false);
+		if (r != null) {
+			executeCommand(r.getRequirementId(), new Command(CommandValue.ASSIGN, null, null, 0, null, developer, null));
+		}
+		return r;
+	}
+	
+	/**
+	 * Getter for the number of Requirements waiting in the Accepted queue without visiting the Requirements.
+	 * @return the number of Accepted Requirements
+	 */
+	public int getQueueSize() {
+		return acceptedQueue.size();
+	}
+	
+	/**
+	 * Getter for the Requirements in the given state, in no particular order.
+	 * Only the Requirements in that state are visited.
+	 * @param state the StateValue of the state
+	 * @return a new ArrayList of the Requirements in the state
+	 */
+	public ArrayList<Requirement> getRequirementsByState(StateValue state) {
+		Requirement[] inState = reqsByState[state.ordinal()].values();
+		ArrayList<Requirement> result = new ArrayList<Requirement>(inState.length);
+		for (int i = 0; i < inState.length; i++) {
+			result.add(inState[i]);
+		}
+		return result;
 	}
 	
 	/**
@@ -89,26 +521,358 @@ public class RequirementsList {
 	 * @throws UnsupportedOperationException if the Command is invalid for the state of the Requirement
 	 */
 	public void executeCommand(int requirementId, Command c) throws UnsupportedOperationException {
-		try {
-			for (int i = 0; i < reqs.size(); i++) {
-				if (reqs.get(i).getRequirementId() == requirementId) {
-					reqs.get(i).update(c);
-				}
-			}
-		} catch (UnsupportedOperationException e) {
+		if (tryExecuteCommand(requirementId, c) == CommandResult.INVALID_TRANSITION) {
 			throw new UnsupportedOperationException();
 		}
 	}
 	
+	/**
+	 * Executes a Command for the Requirement with the specified requirementId without throwing if the Command is invalid.
+	 * @param requirementId the unique requirementId
+	 * @param c the Command to execute
+	 * @return APPLIED if the Requirement was updated, INVALID_TRANSITION if the Command is invalid for the state of the Requirement,
+	 * or NOT_FOUND if the requirementId is not in the list
+	 */
+	public CommandResult tryExecuteCommand(int requirementId, Command c) {
+		Requirement r = reqsById.get(requirementId);
+		if (r == null) {
+			return CommandResult.NOT_FOUND;
+		}
+		return r.tryUpdate(c);
+	}
+	
+	/**
+	 * Executes a Command only if the Requirement is still at the version the caller last read, so that two clients
+	 * editing the same Requirement cannot silently overwrite each other.  Nothing is locked while the caller decides.
+	 * @param requirementId the unique requirementId
+	 * @param c the Command to execute
+	 * @param expectedVersion the version of the Requirement the Command was based on
+	 * @return APPLIED if the Requirement was updated, CONFLICT if its version is not expectedVersion,
+	 * INVALID_TRANSITION if the Command is invalid for its state, or NOT_FOUND if the requirementId is not in the list
+	 */
+	public CommandResult tryExecuteCommand(int requirementId, Command c, int expectedVersion) {
+		Requirement r = reqsById.get(requirementId);
+		if (r == null) {
+			return CommandResult.NOT_FOUND;
+		}
+		if (r.getVersion() != expectedVersion) {
+			return CommandResult.CONFLICT;
+		}
+		return r.tryUpdate(c);
+	}
+	
+	/**
+	 * Executes a batch of Commands, the Command at each position for the requirementId at the same position, in order.
+	 * All of the requirementIds are looked up in one pass before any Command is applied.
+	 * When allOrNothing is true the batch is first checked against the transition table, following the state each Requirement
+	 * would be in after the Commands before it, and nothing is applied unless every Command would be.
+	 * @param requirementIds the requirementIds
+	 * @param commands the Commands, as many as requirementIds
+	 * @param allOrNothing true to apply the Commands only if all of them are valid
+	 * @return the result of each Command; in an all-or-nothing batch that was not applied, the valid Commands are SKIPPED
+	 * @throws IllegalArgumentException if the arrays are not the same length or a Command is null
+	 */
+	public CommandResult[] executeCommands(int[] requirementIds, Command[] commands, boolean allOrNothing) {
+		if (requirementIds.length != commands.length) {
+			throw new IllegalArgumentException("Invalid batch");
+		}
+		for (int i = 0; i < commands.length; i++) {
+			if (commands[i] == null) {
+				throw new IllegalArgumentException("Invalid batch");
+			}
+		}
+		CommandResult[] results = new CommandResult[commands.length];
+		Requirement[] targets = new Requirement[commands.length];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = reqsById.get(requirementIds[i]);
+		}
+		if (allOrNothing && !checkCommands(targets, commands, results)) {
+			return results;
+		}
+		for (int i = 0; i < targets.length; i++) {
+			results[i] = targets[i] == null ? CommandResult.NOT_FOUND : targets[i].tryUpdate(commands[i]);
+		}
+		return results;
+	}
+	
+	/**
+	 * Checks a batch of Commands against the transition table without changing any Requirement.
+	 * The state each Requirement would reach is kept in a small open addressing table of requirementIds and
+	 * StateValue ordinals plus one, zero for an empty slot, so the check does not box the ids.
+	 * @param targets the Requirement for each Command, null if it was not found
+	 * @param commands the Commands
+	 * @param results filled with the failures and SKIPPED for the other Commands if any Command would fail
+	 * @return true if every Command would be applied
+	 */
+	private boolean checkCommands(Requirement[] targets, Command[] commands, CommandResult[] results) {
+		int capacity = 16;
+		while (capacity < targets.length * 2) {
+			capacity <<= 1;
+		}
+		int mask = capacity - 1;
+		int[] ids = new int[capacity];
+		byte[] states = new byte[capacity];
+		StateValue[] values = StateValue.values();
+		boolean valid = true;
+		for (int i = 0; i < targets.length; i++) {
+			if (targets[i] == null) {
+				results[i] = CommandResult.NOT_FOUND;
+				valid = false;
+				continue;
+			}
+			int id = targets[i].getRequirementId();
+			int h = id * 0x9E3779B9;
+			int slot = (h ^ (h >>> 16)) & mask;
+			while (states[slot] != 0 && ids[slot] != id) {
+				slot = (slot + 1) & mask;
+			}
+			StateValue from = states[slot] == 0 ? targets[i].getState().getStateValue() : values[states[slot] - 1];
+			StateValue to = Requirement.nextState(from, commands[i].getCommand());
+			if (to == null) {
+				results[i] = CommandResult.INVALID_TRANSITION;
+				valid = false;
+			} else {
+				results[i] = CommandResult.SKIPPED;
+				ids[slot] = id;
+				states[slot] = (byte) (to.ordinal() + 1);
+			}
+		}
+		return valid;
+	}
+	
+	/**
+	 * Starts or stops recording a RequirementEvent for every add, delete, state change and developer or
+	 * acceptance test id change, for takeEvents.
+	 * Stopping drops the events not yet taken.
+	 * @param record true to record events
+	 */
+	void recordEvents(boolean record) {
+		if (!record) {
+			events = null;
+		} else if (events == null) {
+			events = new ArrayList<RequirementEvent>();
+		}
+	}
+	
+	/**
+	 * Getter for the events recorded since the last call, which are then forgotten.
+	 * @return the events in the order the changes were made, empty if there are none or events are not being recorded
+	 */
+	ArrayList<RequirementEvent> takeEvents() {
+		if (events == null || events.isEmpty()) {
+			return new ArrayList<RequirementEvent>(0);
+		}
+		ArrayList<RequirementEvent> taken = events;
+		events = new ArrayList<RequirementEvent>();
+		return taken;
+	}
+	
+	/**
+	 * Records an event if events are being recorded.
+	 * @param type the kind of change
+	 * @param requirementId the requirementId
+	 * @param from the state before the change, or null
+	 * @param to the state after the change, or null
+	 * @param command the Command that caused the change, or null
+	 */
+	private void record(RequirementEvent.Type type, int requirementId, StateValue from, StateValue to, CommandValue command) {
+		if (events != null) {
+			events.add(new RequirementEvent(type, requirementId, from, to, command));
+		}
+	}
+	
 	/**
 	 * Deletes the Requirement with the specified requirementId.
 	 * Does not error check or throw an exception if the requirementId does not exist in the List.
 	 * @param requirementId the unique requirementId
 	 */
 	public void deleteRequirementById(int requirementId) {
+		Requirement removed = reqsById.remove(requirementId);
+		if (removed != null) {
+			deletedCount++;
+			touch(requirementId);
+			unindex(removed);
+			record(RequirementEvent.Type.DELETED, requirementId, removed.getState().getStateValue(), null, null);
+			compactIfSparse();
+		}
+	}
+	
+	/**
+	 * Adds a Requirement to the ordered list and all of the indexes.
+	 * A Requirement that replaces one with the same id takes its place in the list when the list is next compacted.
+	 * @param r the Requirement to add
+	 */
+	private void add(Requirement r) {
+		Requirement replaced = reqsById.put(r.getRequirementId(), r);
+		if (replaced != null) {
+			deletedCount++;
+			unindex(replaced);
+			record(RequirementEvent.Type.DELETED, replaced.getRequirementId(), replaced.getState().getStateValue(), null, null);
+		}
+		reqs.add(r);
+		touch(r.getRequirementId());
+		index(r);
+		record(RequirementEvent.Type.ADDED, r.getRequirementId(), null, r.getState().getStateValue(), null);
+		if (replaced != null) {
+			compactIfSparse();
+		}
+	}
+	
+	/**
+	 * Records that the Requirement with a requirementId was added, changed or deleted, for the next save of changes and the next view.
+	 * @param requirementId the requirementId
+	 */
+	private void touch(int requirementId) {
+		changedIds.set(requirementId);
+		viewChangedIds.set(requirementId);
+	}
+	
+	/**
+	 * Adds a Requirement that is in reqsById to the other indexes, starts listening to it and shares its strings through the pool.
+	 * @param r the Requirement to index
+	 */
+	private void index(Requirement r) {
+		reqsByState[r.getState().getStateValue().ordinal()].put(r.getRequirementId(), r);
+		estimates.add(r);
+		summaries.add(r.getRequirementId(), r.getSummary());
+		testIds.add(r.getRequirementId(), r.getAcceptanceTestId());
+		developers.add(r.getRequirementId(), r.getDeveloper());
+		enqueue(r);
+		r.setListener(indexer);
+		r.setStringPool(strings);
+	}
+	
+	/**
+	 * Removes a Requirement from the indexes other than reqsById, stops listening to it and gives its strings back to the pool.
+	 * @param r the Requirement to remove
+	 */
+	private void unindex(Requirement r) {
+		r.setListener(null);
+		r.setStringPool(null);
+		reqsByState[r.getState().getStateValue().ordinal()].remove(r.getRequirementId());
+		estimates.remove(r.getRequirementId());
+		summaries.remove(r.getRequirementId(), r.getSummary());
+		testIds.remove(r.getRequirementId(), r.getAcceptanceTestId());
+		developers.remove(r.getRequirementId(), r.getDeveloper());
+		acceptedQueue.remove(r.getRequirementId());
+		workingQueue.remove(r.getRequirementId());
+	}
+	
+	/**
+	 * Adds a Requirement to the work queue of its state, if its state has one.
+	 * @param r the Requirement
+	 */
+	private void enqueue(Requirement r) {
+		StateValue state = r.getState().getStateValue();
+		if (state == StateValue.ACCEPTED) {
+			acceptedQueue.add(r);
+		} else if (state == StateValue.WORKING) {
+			workingQueue.add(r);
+		}
+	}
+	
+	/**
+	 * Compacts the ordered list once more than half of it is deleted Requirements.
+	 * Deletes only update the index, so the list is compacted once here instead of shifting it on every delete,
+	 * and the cost of compacting is spread over the deletes that made it necessary.
+	 */
+	private void compactIfSparse() {
+		if (deletedCount > reqs.size() / 2) {
+			reqs = live();
+			deletedCount = 0;
+		}
+	}
+	
+	/**
+	 * Getter for the Requirements in the ordered list that are still in the id index, without changing the list.
+	 * The Requirement in the index for an id is kept at the first place the id appears.
+	 * @return the Requirements in order
+	 */
+	private ArrayList<Requirement> live() {
+		ArrayList<Requirement> live = new ArrayList<Requirement>(reqsById.size());
+		BitSet kept = new BitSet();
 		for (int i = 0; i < reqs.size(); i++) {
-			if (reqs.get(i).getRequirementId() == requirementId) {
-				reqs.remove(i);
+			int id = reqs.get(i).getRequirementId();
+			Requirement r = reqsById.get(id);
+			if (r != null && !kept.get(id)) {
+				live.add(r);
+				kept.set(id);
+			}
+		}
+		return live;
+	}
+	
+	/**
+	 * Private inner class that updates the indexes of the list when a Requirement in it changes,
+	 * including Commands issued directly to a Requirement instead of through executeCommand.
+	 */
+	private class Indexer implements RequirementListener {
+
+		/**
+		 * Moves the Requirement to the bucket and work queue of its new state, recounts its estimate and records it as changed
+		 * and, if events are being recorded, as transitioned.
+		 * @param r the Requirement that changed
+		 * @param from the state before the Command
+		 * @param c the Command that was applied
+		 */
+		@Override
+		public void stateChanged(Requirement r, RequirementState from, Command c) {
+			reqsByState[from.getStateValue().ordinal()].remove(r.getRequirementId());
+			reqsByState[r.getState().getStateValue().ordinal()].put(r.getRequirementId(), r);
+			acceptedQueue.remove(r.getRequirementId());
+			workingQueue.remove(r.getRequirementId());
+			enqueue(r);
+			estimates.update(r);
+			touch(r.getRequirementId());
+			record(RequirementEvent.Type.TRANSITIONED, r.getRequirementId(), from.getStateValue(), r.getState().getStateValue(), c.getCommand());
+		}
+
+		/**
+		 * Moves the Requirement to the postings of the words of its new summary.
+		 * @param r the Requirement that changed
+		 * @param oldSummary the summary before the Command
+		 */
+		@Override
+		public void summaryChanged(Requirement r, String oldSummary) {
+			summaries.remove(r.getRequirementId(), oldSummary);
+			summaries.add(r.getRequirementId(), r.getSummary());
+		}
+
+		/**
+		 * Moves the Requirement to the postings of the trigrams of its new acceptance test id and records it as changed.
+		 * If the id was set directly it is also recorded as updated; a Command is recorded once, as transitioned.
+		 * @param r the Requirement that changed
+		 * @param oldId the acceptance test id before the change
+		 * @param c the Command that changed it, or null
+		 */
+		@Override
+		public void acceptanceTestIdChanged(Requirement r, String oldId, Command c) {
+			testIds.remove(r.getRequirementId(), oldId);
+			testIds.add(r.getRequirementId(), r.getAcceptanceTestId());
+			touch(r.getRequirementId());
+			if (c == null) {
+				StateValue state = r.getState().getStateValue();
+				record(RequirementEvent.Type.UPDATED, r.getRequirementId(), state, state, null);
+			}
+		}
+
+		/**
+		 * Moves the Requirement to the postings of its new developer and records it as changed.
+		 * If the developer was set directly its estimate is moved to the new developer's total and it is also recorded
+		 * as updated; for a Command, stateChanged recounts the estimate and records the transition.
+		 * @param r the Requirement that changed
+		 * @param oldDeveloper the developer before the change, or null
+		 * @param c the Command that changed it, or null
+		 */
+		@Override
+		public void developerChanged(Requirement r, String oldDeveloper, Command c) {
+			developers.remove(r.getRequirementId(), oldDeveloper);
+			developers.add(r.getRequirementId(), r.getDeveloper());
+			touch(r.getRequirementId());
+			if (c == null) {
+				estimates.update(r);
+				StateValue state = r.getState().getStateValue();
+				record(RequirementEvent.Type.UPDATED, r.getRequirementId(), state, state, null);
 			}
 		}
 	}
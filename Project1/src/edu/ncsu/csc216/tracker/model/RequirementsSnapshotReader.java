@@ -0,0 +1,196 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
+
+/**
+ * RequirementsSnapshotReader class reads Requirements from a binary snapshot file written by RequirementsSnapshotWriter,
+ * one at a time.  The fields are decoded straight out of a byte buffer with no parsing of names or numbers.
+ * Reads every version up to the one RequirementsSnapshotWriter writes; the index at the end of a version 2 file is not needed here.
+ * @author mlee25 Michael Lee
+ */
+public class RequirementsSnapshotReader implements Closeable {
+
+	/** Size of the input buffer in bytes */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** States indexed by StateValue ordinal */
+	private static final StateValue[] STATES = StateValue.values();
+
+	/** Rejection reasons indexed by Rejection ordinal */
+	private static final Rejection[] REASONS = Rejection.values();
+
+	/** Stream the snapshot is read from */
+	private InputStream in;
+
+	/** Bytes read from the stream */
+	private byte[] buf;
+
+	/** Position of the next byte in buf */
+	private int pos;
+
+	/** Number of bytes in buf */
+	private int limit;
+
+	/** Number of Requirements the header says the file holds */
+	private int count;
+
+	/** Number of Requirements read so far */
+	private int read;
+
+	/**
+	 * Constructor for RequirementsSnapshotReader that reads from the specified file.
+	 * @param filename file to read
+	 * @throws IOException if the file cannot be opened or read
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+	 */
+	public RequirementsSnapshotReader(String filename) throws IOException {
+		this(new FileInputStream(filename));
+	}
+
+	/**
+	 * Constructor for RequirementsSnapshotReader that reads from the specified stream.
+	 * @param in stream to read, closed when the reader is closed
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if the stream is not a snapshot of a supported version
+	 */
+	public RequirementsSnapshotReader(InputStream in) throws IOException {
+		this.in = in;
+		this.buf = new byte[BUFFER_SIZE];
+		for (int i = 0; i < RequirementsSnapshotWriter.MAGIC.length; i++) {
+			if (readByte() != RequirementsSnapshotWriter.MAGIC[i]) {
+				throw new IllegalArgumentException("Invalid snapshot file");
+			}
+		}
+		int version = readByte();
+		if (version < 1 || version > RequirementsSnapshotWriter.VERSION) {
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+		this.count = readVarint();
+	}
+
+	/**
+	 * Getter for the number of Requirements in the snapshot.
+	 * @return the number of Requirements
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Reads the next Requirement.
+	 * @return the next Requirement, or null if all of them have been read
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if the snapshot is cut off or holds an invalid Requirement
+	 */
+	public Requirement next() throws IOException {
+		if (read == count) {
+			return null;
+		}
+		read++;
+		int id = readVarint();
+		int state = readByte();
+		int priority = readByte();
+		int rejection = readByte();
+		if (state >= STATES.length || rejection > REASONS.length) {
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+		String summary = readString();
+		String acceptanceTestId = readString();
+		String estimate = readString();
+		String developer = readString();
+		return new Requirement(id, STATES[state], summary, acceptanceTestId, priority, estimate, developer,
+				rejection == 0 ? null : REASONS[rejection - 1]);
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Makes sure at least one unread byte is in the buffer.
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if the stream has ended
+	 */
+	private void fill() throws IOException {
+		if (pos < limit) {
+			return;
+		}
+		limit = in.read(buf, 0, buf.length);
+		pos = 0;
+		if (limit <= 0) {
+			limit = 0;
+			throw new IllegalArgumentException("Invalid snapshot file");
+		}
+	}
+
+	/**
+	 * Reads one byte.
+	 * @return the byte as an int from 0 to 255
+	 * @throws IOException if the stream cannot be read
+	 */
+	private int readByte() throws IOException {
+		fill();
+		return buf[pos++] & 0xFF;
+	}
+
+	/**
+	 * Reads a non-negative int written by RequirementsSnapshotWriter.writeVarint.
+	 * @return the int
+	 * @throws IOException if the stream cannot be read
+	 */
+	private int readVarint() throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = readByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (v < 0) {
+					break;
+				}
+				return v;
+			}
+		}
+		throw new IllegalArgumentException("Invalid snapshot file");
+	}
+
+	/**
+	 * Reads a string written by RequirementsSnapshotWriter.writeString.
+	 * @return the string, or null
+	 * @throws IOException if the stream cannot be read
+	 */
+	private String readString() throws IOException {
+		int length = readVarint() - 1;
+		if (length <= 0) {
+			return length == 0 ? "" : null;
+		}
+		fill();
+		if (length <= limit - pos) {
+			String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			return s;
+		}
+		byte[] bytes = new byte[length];
+		int n = 0;
+		while (n < length) {
+			fill();
+			int chunk = Math.min(length - n, limit - pos);
+			System.arraycopy(buf, pos, bytes, n, chunk);
+			pos += chunk;
+			n += chunk;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
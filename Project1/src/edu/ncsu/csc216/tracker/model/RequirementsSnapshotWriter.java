@@ -0,0 +1,227 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * RequirementsSnapshotWriter class writes Requirements to a binary snapshot file, which loads much faster than XML.
+ * The file starts with the bytes "RQSN", a version byte and the number of Requirements.  Each Requirement is then
+ * its id, its StateValue ordinal, its priority, its Rejection ordinal plus one (0 for none), and its summary,
+ * acceptance test id, estimate and developer.  Ids, counts and string lengths are unsigned varints, and each string is
+ * its length in UTF-8 bytes plus one (0 for null) followed by the bytes.
+ * Since version 2 the Requirements are followed by an index of (int id, long offset) pairs sorted by id, and the file ends
+ * with the long offset of the index and the bytes "RQSX", so MappedRequirementStore can find a Requirement without a scan.
+ * @author mlee25 Michael Lee
+ */
+public class RequirementsSnapshotWriter implements Closeable {
+
+	/** First bytes of every snapshot file */
+	static final byte[] MAGIC = {'R', 'Q', 'S', 'N'};
+
+	/** Last bytes of every snapshot file with an index */
+	static final byte[] INDEX_MAGIC = {'R', 'Q', 'S', 'X'};
+
+	/** Version of the format written */
+	static final int VERSION = 2;
+
+	/** Size of the output buffer in bytes */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Stream the snapshot is written to */
+	private OutputStream out;
+
+	/** Bytes not yet written to the stream */
+	private byte[] buf;
+
+	/** Number of bytes in buf */
+	private int pos;
+
+	/** Number of Requirements the header says the file holds */
+	private int expected;
+
+	/** Number of Requirements written so far */
+	private int count;
+
+	/** Number of bytes written to the stream before the ones in buf */
+	private long flushed;
+
+	/** Ids of the Requirements written, in the order they were written */
+	private int[] ids;
+
+	/** Offsets in the file of the Requirements written, in the order they were written */
+	private long[] offsets;
+
+	/**
+	 * Constructor for RequirementsSnapshotWriter that writes to the specified file, replacing it if it exists.
+	 * @param filename file to write
+	 * @param expected number of Requirements that will be written
+	 * @throws IOException if the file cannot be opened
+	 */
+	public RequirementsSnapshotWriter(String filename, int expected) throws IOException {
+		this(new FileOutputStream(filename), expected);
+	}
+
+	/**
+	 * Constructor for RequirementsSnapshotWriter that writes to the specified stream.
+	 * @param out stream to write, closed when the writer is closed
+	 * @param expected number of Requirements that will be written
+	 * @throws IOException if the header cannot be written
+	 */
+	public RequirementsSnapshotWriter(OutputStream out, int expected) throws IOException {
+		if (expected < 0) {
+			throw new IllegalArgumentException("Invalid count");
+		}
+		this.out = out;
+		this.buf = new byte[BUFFER_SIZE];
+		this.expected = expected;
+		this.ids = new int[expected];
+		this.offsets = new long[expected];
+		for (int i = 0; i < MAGIC.length; i++) {
+			writeByte(MAGIC[i]);
+		}
+		writeByte(VERSION);
+		writeVarint(expected);
+	}
+
+	/**
+	 * Writes a Requirement.
+	 * @param r the Requirement to write
+	 * @throws IOException if the Requirement cannot be written
+	 * @throws IllegalStateException if more Requirements are written than the header says
+	 */
+	public void write(Requirement r) throws IOException {
+		if (count == expected) {
+			throw new IllegalStateException("More requirements than expected");
+		}
+		ids[count] = r.getRequirementId();
+		offsets[count] = flushed + pos;
+		count++;
+		writeVarint(r.getRequirementId());
+		writeByte(r.getState().getStateValue().ordinal());
+		writeByte(r.getPriority());
+		writeByte(r.getRejectionReason() == null ? 0 : r.getRejectionReason().ordinal() + 1);
+		writeString(r.getSummary());
+		writeString(r.getAcceptanceTestId());
+		writeString(r.getEstimate());
+		writeString(r.getDeveloper());
+	}
+
+	/**
+	 * Writes the index, flushes the buffer and closes the underlying stream.
+	 * @throws IOException if the buffer cannot be written, the stream cannot be closed,
+	 * or fewer Requirements were written than the header says
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (count == expected) {
+				writeIndex();
+			}
+			flush();
+		} finally {
+			out.close();
+		}
+		if (count != expected) {
+			throw new IOException("Fewer requirements than expected");
+		}
+	}
+
+	/**
+	 * Writes the (id, offset) pairs sorted by id and the footer.
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private void writeIndex() throws IOException {
+		long indexStart = flushed + pos;
+		long[] order = new long[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = (long) ids[i] << 32 | i;
+		}
+		Arrays.sort(order);
+		for (int i = 0; i < count; i++) {
+			int written = (int) order[i];
+			writeFixed(ids[written], 4);
+			writeFixed(offsets[written], 8);
+		}
+		writeFixed(indexStart, 8);
+		for (int i = 0; i < INDEX_MAGIC.length; i++) {
+			writeByte(INDEX_MAGIC[i]);
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes to the stream.
+	 * @throws IOException if the bytes cannot be written
+	 */
+	private void flush() throws IOException {
+		out.write(buf, 0, pos);
+		flushed += pos;
+		pos = 0;
+	}
+
+	/**
+	 * Writes the low byte of an int.
+	 * @param b the byte to write
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private void writeByte(int b) throws IOException {
+		if (pos == buf.length) {
+			flush();
+		}
+		buf[pos++] = (byte) b;
+	}
+
+	/**
+	 * Writes the low bytes of a long, high byte first.
+	 * @param v the value to write
+	 * @param bytes the number of bytes to write
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private void writeFixed(long v, int bytes) throws IOException {
+		for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+			writeByte((int) (v >>> shift));
+		}
+	}
+
+	/**
+	 * Writes a non-negative int seven bits at a time, low bits first, with the high bit set on every byte but the last.
+	 * @param v the int to write
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private void writeVarint(int v) throws IOException {
+		while ((v & ~0x7F) != 0) {
+			writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		writeByte(v);
+	}
+
+	/**
+	 * Writes a string as its length in UTF-8 bytes plus one and the bytes, or 0 for null.
+	 * @param s the string, may be null
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private void writeString(String s) throws IOException {
+		if (s == null) {
+			writeByte(0);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length + 1);
+		if (bytes.length > buf.length - pos) {
+			flush();
+			if (bytes.length > buf.length) {
+				out.write(bytes);
+				flushed += bytes.length;
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buf, pos, bytes.length);
+		pos += bytes.length;
+	}
+}
@@ -1,97 +1,679 @@
 package edu.ncsu.csc216.tracker.model;
 
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.ncsu.csc216.tracker.requirement.Command;
 import edu.ncsu.csc216.tracker.requirement.Requirement;
-import edu.ncsu.csc216.tracker.xml.Req;
-import edu.ncsu.csc216.tracker.xml.RequirementIOException;
-import edu.ncsu.csc216.tracker.xml.RequirementsReader;
-import edu.ncsu.csc216.tracker.xml.RequirementsWriter;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 
 /**
  * RequirementsTrackerModel class controls the creation and modification of (potentially many) RequirementsLists and handles CommandValues from the GUI.
  * Implements the Singleton design pattern to ensure that all parts of the RequirementsTrackerGUI are interacting with the same RequirementsTrackerModel at all times.
  * RequirementsTrackerModel maintains the current RequirementsList and handles activity around loading, saving, and creating new RequirementsLists. For this, RequirementsTrackerModel will use RequirementReader and RequirementWriter from the RequirementTrackerXML library. 
  * If a RequirementIOException is thrown, RequirementsTrackerModel catches it and throws a new IllegalArgumentException.
+ * Changes since the last full save can be appended to a changes file next to the requirements file instead of rewriting it,
+ * and are folded back into the requirements file by compactRequirementsFile.
+ * When a CommandJournal is open, every add, delete and applied Command is logged to it until the list is next saved or replaced,
+ * and a call that changes the list returns only once its records are on the disk.
+ * The model can be shared between threads through one ReentrantReadWriteLock.  Reads are not lock-free: methods that only read
+ * the RequirementsList take the read lock, so they run at the same time as each other but wait for a change in progress,
+ * and methods that change it take the write lock.  Apart from the deprecated getRequirementById, the model only hands out
+ * immutable FrozenRequirements and RequirementsViews, never the Requirements of its list, so what it returns can be read
+ * from any thread after the read lock is released.
+ * RequirementEventListeners are told about the Requirements added, deleted and moved between states by each call,
+ * so that they can update what they show or keep instead of rebuilding it.
  * @author mlee25 Michael Lee
  *
  */
 public class RequirementsTrackerModel {
 
-	/** Instance variable for RequirementsTrackerModel */
-	private static RequirementsTrackerModel instance;
+	/** Instance variable for RequirementsTrackerModel, volatile so it is seen fully built by every thread */
+	private static volatile RequirementsTrackerModel instance;
+	
+	/** Suffix added to a requirements file name to get the name of its changes file */
+	public static final String CHANGES_SUFFIX = ".changes";
+	
+	/** Suffix added to a requirements file name to get the name of the CommandJournal kept while it is open */
+	public static final String JOURNAL_SUFFIX = ".journal";
 	
 	/** Instance variable for RequirementsList */
 	private RequirementsList reqList;
 	
+	/** File the RequirementsList was last loaded from or fully saved to, or null if neither */
+	private String baseFile;
+	
+	/** Journal of the changes since the RequirementsList was last loaded or saved, or null if there is none */
+	private CommandJournal journal;
+	
+	/** File the journal was opened from, or null if there is no journal */
+	private String journalFile;
+	
+	/** View as of the last call that changed the model, or null until a view is first asked for */
+	private volatile RequirementsView view;
+	
+	/** Lock shared by the methods that read the RequirementsList and held alone by the methods that change it */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	/** Listeners told about the changes made by each call that changes the RequirementsList, changed under the write lock */
+	private final CopyOnWriteArrayList<RequirementEventListener> eventListeners = new CopyOnWriteArrayList<RequirementEventListener>();
+
+	/** Batches of events not yet delivered, in the order the changes were made, guarded by itself */
+	private final ArrayDeque<List<RequirementEvent>> outbox = new ArrayDeque<List<RequirementEvent>>();
+
+	/** Number of batches ever added to the outbox, guarded by outbox */
+	private long queuedBatches;
+
+	/** Number of batches ever delivered, guarded by outbox */
+	private long deliveredBatches;
+
+	/** Thread delivering batches from the outbox, or null if none is, guarded by outbox */
+	private Thread deliverer;
+	
+	/** RequirementsList the listeners were last told about, so a replaced list is reported as RELOADED */
+	private RequirementsList publishedList;
+	
 	/**
 	 * Constructor for RequirementsTrackerModel.  Constructor is private.
 	 */
 	private RequirementsTrackerModel() {
-		instance = this;
 		this.createNewRequirementsList();
 	}
 	
 	/**
 	 * Getter for RequirementsTrackerModel.  
+	 * The instance is created at most once even if several threads ask for it at the same time.
 	 * @return the single instance of RequirementsTrackerModel
 	 */
 	public static RequirementsTrackerModel getInstance() {
-		if (instance != null) {
-			return instance;			
+		RequirementsTrackerModel result = instance;
+		if (result == null) {
+			synchronized (RequirementsTrackerModel.class) {
+				result = instance;
+				if (result == null) {
+					result = new RequirementsTrackerModel();
+					instance = result;
+				}
+			}
 		}
-		instance = new RequirementsTrackerModel();
-		return instance;
+		return result;
 	}
 	
 	/**
-	 * Saves a RequirementsList to the specified filename using RequirementWriter from the RequirementTrackerXML library.
+	 * Saves a RequirementsList to the specified filename using RequirementsXMLWriter, which writes each Requirement
+	 * as it goes instead of building a Req for every Requirement first.
+	 * Any changes file for the filename is deleted because the full file already holds the changes, and so is any journal
+	 * for the filename other than the open one, since its records are relative to what the file held before.
 	 * @param filename file to write
-	 * @throws IllegalArgumentException if a RequirementIOException is thrown by RequirementWriter
+	 * @throws IllegalArgumentException if the file cannot be written
 	 */
 	public void saveRequirementsToFile(String filename) throws IllegalArgumentException {
-/*
-		RequirementsWriter writer = new RequirementsWriter("test_files/" + filename);
-		ArrayList<Requirement> list = reqList.getRequirements();		
-
-		for (int i = 0; i < list.size(); i++) {
-			writer.addReq(list.get(i).getXMLReq());
+		lock.writeLock().lock();
+		try {
+			ArrayList<Requirement> list = reqList.getRequirements();
+			RequirementsXMLWriter writer = null;
+			try {
+				writer = new RequirementsXMLWriter(filename);
+				for (int i = 0; i < list.size(); i++) {
+					writer.write(list.get(i));
+				}
+				writer.close();
+				writer = null;
+				Files.deleteIfExists(Paths.get(filename + CHANGES_SUFFIX));
+				if (!(filename + JOURNAL_SUFFIX).equals(journalFile)) {
+					Files.deleteIfExists(Paths.get(filename + JOURNAL_SUFFIX));
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file");
+			} finally {
+				closeQuietly(writer);
+			}
+			reqList.clearChanges();
+			baseFile = filename;
+			resetJournal();
+		} finally {
+			unlockWrite();
 		}
+	}
+	
+	/**
+	 * Saves only the Requirements added, changed or deleted since the RequirementsList was last loaded or saved,
+	 * appending them as one segment to the changes file for the specified filename.
+	 * Falls back to a full save if the RequirementsList did not come from the filename, since its changes are not relative to that file.
+	 * @param filename requirements file the changes are for
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void saveChangesToFile(String filename) throws IllegalArgumentException {
+		lock.writeLock().lock();
 		try {
-			writer.marshal();			
-		} catch (RequirementIOException e) {
-			throw new IllegalArgumentException("write exception");
+			if (!filename.equals(baseFile)) {
+				saveRequirementsToFile(filename);
+				return;
+			}
+			if (!reqList.hasChanges()) {
+				return;
+			}
+			RequirementsXMLWriter writer = null;
+			try {
+				writer = RequirementsXMLWriter.appendSegment(filename + CHANGES_SUFFIX);
+				reqList.writeChanges(writer);
+				writer.close();
+				writer = null;
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file");
+			} finally {
+				closeQuietly(writer);
+			}
+			reqList.clearChanges();
+			resetJournal();
+		} finally {
+			unlockWrite();
 		}
-*/
 	}
 	
 	/**
-	 * Loads a RequirementsList from the specified filename using RequirementReader from the RequirementTrackerXML library.
+	 * Folds the changes file for the specified filename into the requirements file and deletes the changes file.
+	 * The requirements file is streamed to a temporary file with the changes applied, which then replaces it,
+	 * so only the changes are held in memory.  Does nothing if there is no changes file.
+	 * @param filename requirements file to compact
+	 * @throws IllegalArgumentException if either file cannot be read or the requirements file cannot be replaced
+	 */
+	public void compactRequirementsFile(String filename) throws IllegalArgumentException {
+		lock.writeLock().lock();
+		try {
+			File changes = new File(filename + CHANGES_SUFFIX);
+			if (!changes.exists()) {
+				return;
+			}
+			LinkedHashMap<Integer, Requirement> latest = readChanges(changes.getPath());
+			String tempFile = filename + ".tmp";
+			RequirementsXMLReader reader = null;
+			RequirementsXMLWriter writer = null;
+			try {
+				reader = new RequirementsXMLReader(filename);
+				writer = new RequirementsXMLWriter(tempFile);
+				Requirement r = null;
+				while ((r = reader.next()) != null) {
+					if (latest.containsKey(r.getRequirementId())) {
+						r = latest.remove(r.getRequirementId());
+					}
+					if (r != null) {
+						writer.write(r);
+					}
+				}
+				for (Requirement added : latest.values()) {
+					if (added != null) {
+						writer.write(added);
+					}
+				}
+				writer.close();
+				writer = null;
+				Files.move(Paths.get(tempFile), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+				Files.delete(changes.toPath());
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file");
+			} finally {
+				closeQuietly(reader);
+				closeQuietly(writer);
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Reads a changes file into a map from requirementId to the last Requirement saved for it, or null if it was last deleted.
+	 * The map keeps the order in which the ids first appear.
+	 * @param filename changes file to read
+	 * @return the map of changes
+	 * @throws IllegalArgumentException if the file cannot be read or holds an invalid Requirement
+	 */
+	private static LinkedHashMap<Integer, Requirement> readChanges(String filename) {
+		LinkedHashMap<Integer, Requirement> latest = new LinkedHashMap<Integer, Requirement>();
+		RequirementsXMLReader reader = null;
+		try {
+			reader = RequirementsXMLReader.openChanges(filename);
+			while (reader.nextChange()) {
+				Requirement r = reader.getRequirement();
+				if (r == null) {
+					latest.put(reader.getDeletedId(), null);
+				} else {
+					latest.put(r.getRequirementId(), r);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file");
+		} finally {
+			closeQuietly(reader);
+		}
+		return latest;
+	}
+
+	/**
+	 * Loads a RequirementsList from the specified filename using RequirementsXMLReader, which streams the file
+	 * one Requirement at a time instead of building the whole List of Req objects first.
+	 * If there is a changes file for the filename, its changes are applied after the file is read.
+	 * The file is read into a new RequirementsList that replaces the current one only once the whole file has been read,
+	 * so a file that cannot be loaded leaves the current RequirementsList and journal as they were.
 	 * @param filename file to read
-	 * @throws IllegalArgumentException if a RequirementIOException is thrown by RequirementReader
+	 * @throws IllegalArgumentException if the file cannot be read or holds an invalid Requirement
 	 */
 	public void loadRequirementsFromFile(String filename) throws IllegalArgumentException {
-/*		RequirementsReader reader = null;
-		instance.createNewRequirementsList();
-		List<Req> list = new ArrayList<Req>();
+		lock.writeLock().lock();
 		try {
-			reader = new RequirementsReader(filename);
-			list = reader.getReqs();
-		} catch (RequirementIOException e) {
-			throw new IllegalArgumentException("my exception message for load");
+			RequirementsXMLReader reader = null;
+			RequirementsList loaded = new RequirementsList();
+			try {
+				reader = new RequirementsXMLReader(filename);
+				loaded.addXMLReqs(reader);
+				if (new File(filename + CHANGES_SUFFIX).exists()) {
+					reader.close();
+					reader = RequirementsXMLReader.openChanges(filename + CHANGES_SUFFIX);
+					loaded.addXMLChanges(reader);
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file");
+			} finally {
+				closeQuietly(reader);
+			}
+			replaceList(loaded, filename);
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Saves the RequirementsList to the specified filename as a binary snapshot using RequirementsSnapshotWriter.
+	 * A snapshot loads much faster than XML.  Changes saved to a changes file are still relative to the XML file,
+	 * and so is the journal, which is left as it is because the snapshot does not become its base.
+	 * @param filename file to write
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void saveRequirementsToSnapshot(String filename) throws IllegalArgumentException {
+		lock.writeLock().lock();
+		try {
+			ArrayList<Requirement> list = reqList.getRequirements();
+			RequirementsSnapshotWriter writer = null;
+			try {
+				writer = new RequirementsSnapshotWriter(filename, list.size());
+				for (int i = 0; i < list.size(); i++) {
+					writer.write(list.get(i));
+				}
+				writer.close();
+				writer = null;
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file");
+			} finally {
+				closeQuietly(writer);
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Loads a RequirementsList from a binary snapshot written by saveRequirementsToSnapshot.
+	 * Like loadRequirementsFromFile, the current RequirementsList is only replaced once the whole snapshot has been read.
+	 * A snapshot is not a base for a changes file, so saving changes after it falls back to a full save.
+	 * @param filename file to read
+	 * @throws IllegalArgumentException if the file cannot be read, is not a snapshot or holds an invalid Requirement
+	 */
+	public void loadRequirementsFromSnapshot(String filename) throws IllegalArgumentException {
+		lock.writeLock().lock();
+		try {
+			RequirementsSnapshotReader reader = null;
+			RequirementsList loaded = new RequirementsList();
+			try {
+				reader = new RequirementsSnapshotReader(filename);
+				loaded.addSnapshotReqs(reader);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file");
+			} finally {
+				closeQuietly(reader);
+			}
+			replaceList(loaded, null);
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Opens a snapshot written by saveRequirementsToSnapshot read-only through a MappedRequirementStore, without loading it
+	 * or replacing the current RequirementsList.  Meant for reporting over snapshots too large to load.
+	 * @param filename file to open
+	 * @return the store, which the caller closes
+	 * @throws IllegalArgumentException if the file cannot be read or is not a snapshot with an index
+	 */
+	public MappedRequirementStore openSnapshotStore(String filename) throws IllegalArgumentException {
+		try {
+			return new MappedRequirementStore(filename);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file");
+		}
+	}
+	
+	/**
+	 * Opens a CommandJournal and replays the records already in it on top of the current RequirementsList.
+	 * Meant to be called on startup right after the last saved file is loaded, so the changes made after that save are recovered;
+	 * the GUI keeps the journal next to the requirements file, named with JOURNAL_SUFFIX.
+	 * From then on every add, delete and applied Command is logged to the journal.  The journal is emptied whenever
+	 * the RequirementsList is saved to its file, and closed when the RequirementsList is loaded or replaced,
+	 * since its records no longer apply to the new list.
+	 * The records are replayed on a copy of the RequirementsList that replaces it only if every record could be read,
+	 * so a journal that cannot be replayed leaves the RequirementsList as it was.
+	 * A call that changes the model does not return until its records are on the disk, and calls that finish at the same
+	 * time share one fsync.
+	 * @param filename journal file, created if it does not exist
+	 * @return the number of records replayed
+	 * @throws IllegalArgumentException if the journal cannot be opened or read
+	 */
+	public int openJournal(String filename) throws IllegalArgumentException {
+		return openJournal(filename, 0);
+	}
+
+	/**
+	 * Opens a CommandJournal with a commit window and replays it as openJournal(String) does.
+	 * Under load, a write to the journal waits up to the commit window for more calls to log their records,
+	 * so each call may take up to that much longer but many calls share each fsync.
+	 * @param filename journal file, created if it does not exist
+	 * @param commitWindow longest time in microseconds a write waits for more records, 0 to never wait
+	 * @return the number of records replayed
+	 * @throws IllegalArgumentException if the journal cannot be opened or read, or the commit window is negative
+	 */
+	public int openJournal(String filename, long commitWindow) throws IllegalArgumentException {
+		if (commitWindow < 0) {
+			throw new IllegalArgumentException("Invalid commit window");
+		}
+		lock.writeLock().lock();
+		try {
+			closeJournal();
+			CommandJournal opened = null;
+			try {
+				opened = new CommandJournal(filename, commitWindow);
+				RequirementsList copy = reqList.copy();
+				int replayed = opened.replay(copy);
+				if (replayed > 0) {
+					reqList = copy;
+				}
+				journal = opened;
+				journalFile = filename;
+				opened = null;
+				return replayed;
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to open journal");
+			} finally {
+				closeQuietly(opened);
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Writes any pending journal records and closes the journal.  Does nothing if no journal is open.
+	 * @throws IllegalArgumentException if the pending records cannot be written
+	 */
+	public void closeJournal() throws IllegalArgumentException {
+		lock.writeLock().lock();
+		try {
+			if (journal != null) {
+				try {
+					journal.close();
+				} catch (IOException e) {
+					throw new IllegalArgumentException("Unable to write journal");
+				} finally {
+					journal = null;
+					journalFile = null;
+				}
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Empties the journal, if one is open, because its records are saved or no longer apply.
+	 * @throws IllegalArgumentException if the journal cannot be emptied
+	 */
+	private void resetJournal() {
+		if (journal != null) {
+			try {
+				journal.reset();
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to write journal");
+			}
+		}
+	}
+	
+	/**
+	 * Closes the given stream, ignoring any exception because there is nothing left to do with it.
+	 * @param c the stream to close, may be null
+	 */
+	private static void closeQuietly(Closeable c) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+	}
+	
+	/**
+	 * Adds a listener that is told, after every call that changes the RequirementsList, about each Requirement added,
+	 * deleted or moved to another state by that call, or that the whole list was replaced.
+	 * Events are only recorded while there is at least one listener.
+	 * The events of one call are delivered together, in the order the calls were made, after the model's lock is released.
+	 * A call that changes the model does not return until its events have been delivered, so events never pile up behind
+	 * a slow listener; the one exception is a call made by a listener itself, whose events follow once it returns.
+	 * @param listener the listener
+	 * @throws IllegalArgumentException if the listener is null
+	 */
+	public void addEventListener(RequirementEventListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("null listener");
+		}
+		lock.writeLock().lock();
+		try {
+			if (!eventListeners.contains(listener)) {
+				eventListeners.add(listener);
+			}
+			if (publishedList != reqList) {
+				publishedList = reqList;
+				reqList.takeEvents();
+			}
+			reqList.recordEvents(true);
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Removes a listener added by addEventListener.  Does nothing if it was not added.
+	 * @param listener the listener
+	 */
+	public void removeEventListener(RequirementEventListener listener) {
+		lock.writeLock().lock();
+		try {
+			eventListeners.remove(listener);
+			if (eventListeners.isEmpty()) {
+				reqList.recordEvents(false);
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Releases the write lock.  If this is the outermost hold of the lock, the events of the call are queued first,
+	 * so that a call made up of other calls, such as a load, is delivered as one batch, and the view is brought up to date.
+	 * After the lock is released the journal records of the call are committed, so other calls can log their records
+	 * while the disk is busy and share the next fsync, and then the events are delivered.
+	 * @throws IllegalArgumentException if the journal records cannot be written
+	 */
+	private void unlockWrite() {
+		CommandJournal committing = null;
+		long logged = 0;
+		long batch = 0;
+		try {
+			if (lock.getWriteHoldCount() == 1) {
+				if (journal != null) {
+					committing = journal;
+					logged = journal.getLogged();
+				}
+				batch = queueEvents();
+				if (view != null) {
+					view = reqList.getView();
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		try {
+			if (committing != null) {
+				committing.commit(logged);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to write journal");
+		} finally {
+			if (batch > 0) {
+				deliverEvents(batch);
+			}
+		}
+	}
+
+	/**
+	 * Moves the recorded events of a call to the outbox.  Called while holding the write lock, so batches are queued
+	 * in the order the changes were made.
+	 * @return the number of the batch, to pass to deliverEvents, or 0 if there was nothing to queue
+	 */
+	private long queueEvents() {
+		if (eventListeners.isEmpty()) {
+			return 0;
+		}
+		ArrayList<RequirementEvent> events = nextEvents();
+		if (events.isEmpty()) {
+			return 0;
+		}
+		synchronized (outbox) {
+			outbox.add(Collections.unmodifiableList(events));
+			return ++queuedBatches;
+		}
+	}
+
+	/**
+	 * Returns once a batch has been delivered to the listeners.  If no other thread is delivering, this thread delivers
+	 * every batch in the outbox, including ones queued by other threads; otherwise it waits for that thread.
+	 * A listener that changes the model is already the deliverer, so its call returns and its batch is delivered next.
+	 * A listener that throws is reported to the thread's uncaught exception handler and does not keep the batch
+	 * from the other listeners.
+	 * @param batch the number of the batch returned by queueEvents
+	 */
+	private void deliverEvents(long batch) {
+		synchronized (outbox) {
+			if (deliverer == Thread.currentThread()) {
+				return;
+			}
+			while (deliveredBatches < batch && deliverer != null) {
+				try {
+					outbox.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if (deliveredBatches >= batch) {
+				return;
+			}
+			deliverer = Thread.currentThread();
+		}
+		try {
+			while (true) {
+				List<RequirementEvent> events;
+				synchronized (outbox) {
+					events = outbox.poll();
+					if (events == null) {
+						return;
+					}
+				}
+				try {
+					for (RequirementEventListener listener : eventListeners) {
+						try {
+							listener.requirementsChanged(events);
+						} catch (RuntimeException e) {
+							Thread t = Thread.currentThread();
+							t.getUncaughtExceptionHandler().uncaughtException(t, e);
+						}
+					}
+				} finally {
+					synchronized (outbox) {
+						deliveredBatches++;
+						outbox.notifyAll();
+					}
+				}
+			}
+		} finally {
+			synchronized (outbox) {
+				deliverer = null;
+				outbox.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Getter for the next batch of events to deliver, which is a single RELOADED event if the RequirementsList was replaced.
+	 * @return the events, empty if there are none
+	 */
+	private ArrayList<RequirementEvent> nextEvents() {
+		if (publishedList == reqList) {
+			return reqList.takeEvents();
 		}
-		reqList.addXMLReqs(list);
-*/
+		publishedList = reqList;
+		reqList.recordEvents(true);
+		ArrayList<RequirementEvent> batch = new ArrayList<RequirementEvent>(1);
+		batch.add(new RequirementEvent(RequirementEvent.Type.RELOADED, -1, null, null, null));
+		return batch;
 	}
 	
 	/**
 	 * Creates a new RequirementsList.
 	 */
 	public void createNewRequirementsList() {
-		reqList = new RequirementsList();
+		lock.writeLock().lock();
+		try {
+			replaceList(new RequirementsList(), null);
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Makes a new or fully loaded RequirementsList the current one, with no changes since its file, and closes the journal,
+	 * since its records were logged against the old list.  The journal's file is kept, so its records are not lost.
+	 * @param list the RequirementsList
+	 * @param filename file the RequirementsList was loaded from and changes are relative to, or null if none
+	 * @throws IllegalArgumentException if the journal's pending records cannot be written, in which case nothing is replaced
+	 */
+	private void replaceList(RequirementsList list, String filename) {
+		closeJournal();
+		list.clearChanges();
+		reqList = list;
+		baseFile = filename;
 	}
 	
 	/**
@@ -100,26 +682,246 @@ public class RequirementsTrackerModel {
 	 * @return the 2D Object array
 	 */
 	public Object[][] getRequirementListAsArray() {
-		Requirement r = null;
-		ArrayList<Requirement> list = reqList.getRequirements();		
-		Object[][] result = new Object[list.size()][3];
+		lock.readLock().lock();
+		try {
+			Requirement r = null;
+			ArrayList<Requirement> list = reqList.getRequirements();		
+			Object[][] result = new Object[list.size()][3];
 
-		for (int i = 0; i < list.size(); i++) {
-			r = list.get(i);
-			result[i][0] = r.getRequirementId();
-			result[i][1] = r.getState();
-			result[i][2] = r.getSummary();			
+			for (int i = 0; i < list.size(); i++) {
+				r = list.get(i);
+				result[i][0] = r.getRequirementId();
+				result[i][1] = r.getState();
+				result[i][2] = r.getSummary();			
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets an immutable point-in-time view of the Requirements, ordered by id number, for readers such as exports, reports and the GUI.
+	 * The view shares all unchanged data with the view before it, and once returned it can be iterated for as long as needed
+	 * from any thread without holding a lock; later changes to the model do not show up in it.
+	 * Once a view has been asked for, every call that changes the model brings it up to date before releasing the lock
+	 * and publishes it, so this takes no lock at all except the first time.
+	 * @return the view
+	 */
+	public RequirementsView getView() {
+		RequirementsView result = view;
+		if (result == null) {
+			lock.writeLock().lock();
+			try {
+				result = reqList.getView();
+				view = result;
+			} finally {
+				unlockWrite();
+			}
 		}
 		return result;
 	}
 	
+	/**
+	 * Gets a 2D Object array like getRequirementListAsArray that holds only the Requirements in the given state.
+	 * Only the Requirements in that state are visited, and rows are ordered by id number.
+	 * @param state the StateValue of the state
+	 * @return the 2D Object array
+	 */
+	public Object[][] getRequirementListAsArray(StateValue state) {
+		lock.readLock().lock();
+		try {
+			Requirement r = null;
+			ArrayList<Requirement> list = reqList.getRequirementsByState(state);
+			Collections.sort(list, new Comparator<Requirement>() {
+				@Override
+				public int compare(Requirement r1, Requirement r2) {
+					return Integer.compare(r1.getRequirementId(), r2.getRequirementId());
+				}
+			});
+			Object[][] result = new Object[list.size()][3];
+
+			for (int i = 0; i < list.size(); i++) {
+				r = list.get(i);
+				result[i][0] = r.getRequirementId();
+				result[i][1] = r.getState();
+				result[i][2] = r.getSummary();			
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets a 2D Object array like getRequirementListAsArray that holds the workload of one developer,
+	 * the Requirements assigned to them ordered by id number.  Only that developer's Requirements are visited.
+	 * @param developer the developer
+	 * @return the 2D Object array
+	 */
+	public Object[][] getDeveloperWorkload(String developer) {
+		lock.readLock().lock();
+		try {
+			Requirement r = null;
+			ArrayList<Requirement> list = reqList.getRequirementsByDeveloper(developer);
+			Object[][] result = new Object[list.size()][3];
+
+			for (int i = 0; i < list.size(); i++) {
+				r = list.get(i);
+				result[i][0] = r.getRequirementId();
+				result[i][1] = r.getState();
+				result[i][2] = r.getSummary();
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets the number of Requirements assigned to the given developer without visiting the Requirements.
+	 * @param developer the developer
+	 * @return the number of Requirements
+	 */
+	public int getDeveloperCount(String developer) {
+		lock.readLock().lock();
+		try {
+			return reqList.getDeveloperCount(developer);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets the Accepted Requirement to work on next: the highest priority, then the lowest id number.
+	 * @param includeWorking true to also consider the Requirements that are already being worked on
+	 * @return a copy of the next Requirement, or null if there is none
+	 */
+	public FrozenRequirement peekNextRequirement(boolean includeWorking) {
+		lock.readLock().lock();
+		try {
+			return freeze(reqList.peekNextRequirement(includeWorking));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Assigns the next Accepted Requirement, as found by peekNextRequirement, to a developer.
+	 * The assignment is journaled like any other Command.
+	 * @param developer the developer
+	 * @return a copy of the Requirement as assigned, or null if no Requirement is Accepted
+	 */
+	public FrozenRequirement assignNextRequirement(String developer) {
+		lock.writeLock().lock();
+		try {
+			Requirement r = reqList.peekNextRequirement(false);
+			if (r != null) {
+				executeCommand(r.getRequirementId(), new Command(CommandValue.ASSIGN, null, null, 0, null, developer, null));
+			}
+			return freeze(r);
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Gets the number of Requirements in the given state without visiting the Requirements.
+	 * @param state the StateValue of the state
+	 * @return the number of Requirements in the state
+	 */
+	public int getStateCount(StateValue state) {
+		lock.readLock().lock();
+		try {
+			return reqList.getStateCount(state);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets a one line report of the strings shared by the Requirements in the list and the bytes saved by sharing them.
+	 * @return the report
+	 */
+	public String getStringPoolReport() {
+		lock.readLock().lock();
+		try {
+			return reqList.getStringPoolReport();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Searches the summaries of the Requirements for words, ignoring case, without visiting the Requirements.
+	 * @param query the words to look for
+	 * @param matchAll true to find the Requirements whose summaries have every word, false for any of the words
+	 * @return the id numbers found, in increasing order
+	 */
+	public int[] searchSummaries(String query, boolean matchAll) {
+		lock.readLock().lock();
+		try {
+			return reqList.searchSummaries(query, matchAll);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Searches the acceptance test ids of the Requirements for a substring, matching case.
+	 * @param substring the substring to look for
+	 * @return the id numbers of the Requirements whose acceptance test ids contain the substring, in increasing order
+	 */
+	public int[] searchAcceptanceTestIds(String substring) {
+		lock.readLock().lock();
+		try {
+			return reqList.searchAcceptanceTestIds(substring);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
 	/**
 	 * Gets a Requirement with the specified id number.
+	 * The lookup takes the read lock, but the Requirement returned is the one in the list, so reading it while another
+	 * thread changes the model, or changing it directly, is not safe.
 	 * @param reqId the id number of the Requirement
-	 * @return the Requirement with the specified id number
+	 * @return the Requirement with the specified id number, or null if there is none
+	 * @deprecated use getRequirementSnapshot, which returns an immutable copy that is safe to read from any thread
 	 */
+	@Deprecated
 	public Requirement getRequirementById(int reqId) {
-		return reqList.getRequirementById(reqId);
+		lock.readLock().lock();
+		try {
+			return reqList.getRequirementById(reqId);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets an immutable copy of the Requirement with the specified id number, taken under the read lock.
+	 * The copy is not changed by later Commands and can be read from any thread;
+	 * its version can be passed to the compare-and-execute tryExecuteCommand.
+	 * @param reqId the id number of the Requirement
+	 * @return a copy of the Requirement with the specified id number, or null if there is none
+	 */
+	public FrozenRequirement getRequirementSnapshot(int reqId) {
+		lock.readLock().lock();
+		try {
+			return freeze(reqList.getRequirementById(reqId));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Getter for an immutable copy of a Requirement of the list, so the Requirement itself never leaves the model.
+	 * @param r the Requirement, may be null
+	 * @return the copy, or null if r is null
+	 */
+	private static FrozenRequirement freeze(Requirement r) {
+		return r == null ? null : new FrozenRequirement(r);
 	}
 	
 	/**
@@ -129,19 +931,99 @@ public class RequirementsTrackerModel {
 	 * @throws UnsupportedOperationException if the Command is invalid for the state
 	 */
 	public void executeCommand(int reqId, Command c) throws UnsupportedOperationException {
+		lock.writeLock().lock();
+		try {
+			if (tryExecuteCommand(reqId, c) == CommandResult.INVALID_TRANSITION) {
+				throw new UnsupportedOperationException("RequirementsTrackerModel exception thrown");
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Executes the specified Command on the Requirement with the specified id number without throwing if the Command is invalid.
+	 * Meant for bulk replays where many Commands are expected to be invalid for the current state.
+	 * @param reqId the id number of the Requirement to issue the command to
+	 * @param c the Command to be issued
+	 * @return APPLIED if the Requirement was updated, INVALID_TRANSITION if the Command is invalid for the state,
+	 * or NOT_FOUND if there is no Requirement with the id number
+	 */
+	public CommandResult tryExecuteCommand(int reqId, Command c) {
+		lock.writeLock().lock();
 		try {
-			reqList.executeCommand(reqId, c);
-		} catch (UnsupportedOperationException e) {
-			throw new UnsupportedOperationException("RequirementsTrackerModel exception thrown");
+			CommandResult result = reqList.tryExecuteCommand(reqId, c);
+			if (result == CommandResult.APPLIED && journal != null) {
+				journal.logCommand(reqId, c);
+			}
+			return result;
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Executes the specified Command only if the Requirement is still at the version the caller read it at.
+	 * The version is checked and the Command applied under the write lock, so no lock is held while the user decides.
+	 * @param reqId the id number of the Requirement to issue the command to
+	 * @param c the Command to be issued
+	 * @param expectedVersion the version of the Requirement the Command was based on
+	 * @return APPLIED if the Requirement was updated, CONFLICT if it has changed since expectedVersion,
+	 * INVALID_TRANSITION if the Command is invalid for the state, or NOT_FOUND if there is no Requirement with the id number
+	 */
+	public CommandResult tryExecuteCommand(int reqId, Command c, int expectedVersion) {
+		lock.writeLock().lock();
+		try {
+			CommandResult result = reqList.tryExecuteCommand(reqId, c, expectedVersion);
+			if (result == CommandResult.APPLIED && journal != null) {
+				journal.logCommand(reqId, c);
+			}
+			return result;
+		} finally {
+			unlockWrite();
 		}
 	}
 	
+	/**
+	 * Executes a batch of Commands, the Command at each position on the Requirement with the id number at the same position.
+	 * The id numbers are looked up in one pass, and each Command that is applied is journaled.
+	 * @param reqIds the id numbers of the Requirements
+	 * @param commands the Commands, as many as reqIds
+	 * @param allOrNothing true to apply the Commands only if every one of them is valid
+	 * @return the result of each Command; in an all-or-nothing batch that was not applied, the valid Commands are SKIPPED
+	 * @throws IllegalArgumentException if the arrays are not the same length or a Command is null
+	 */
+	public CommandResult[] executeCommands(int[] reqIds, Command[] commands, boolean allOrNothing) {
+		lock.writeLock().lock();
+		try {
+			CommandResult[] results = reqList.executeCommands(reqIds, commands, allOrNothing);
+			if (journal != null) {
+				for (int i = 0; i < results.length; i++) {
+					if (results[i] == CommandResult.APPLIED) {
+						journal.logCommand(reqIds[i], commands[i]);
+					}
+				}
+			}
+			return results;
+		} finally {
+			unlockWrite();
+		}
+	}
+
 	/**
 	 * Deletes a Requirement with the specified id number.
 	 * @param reqId the id number of the Requirement
 	 */
 	public void deleteRequirementById(int reqId) {
-		reqList.deleteRequirementById(reqId);
+		lock.writeLock().lock();
+		try {
+			if (journal != null && reqList.getRequirementById(reqId) != null) {
+				journal.logDelete(reqId);
+			}
+			reqList.deleteRequirementById(reqId);
+		} finally {
+			unlockWrite();
+		}
 	}
 	
 	/**
@@ -150,7 +1032,38 @@ public class RequirementsTrackerModel {
 	 * @param acceptanceTestId the Requirement's acceptance test id
 	 */
 	public void addRequirement(String summary, String acceptanceTestId) {
-		reqList.addRequirement(summary, acceptanceTestId);
+		lock.writeLock().lock();
+		try {
+			int id = reqList.addRequirement(summary, acceptanceTestId);
+			if (journal != null) {
+				journal.logAdd(reqList.getRequirementById(id));
+			}
+		} finally {
+			unlockWrite();
+		}
+	}
+	
+	/**
+	 * Adds many new Requirements at once, with one contiguous block of id numbers.
+	 * @param summaries the summaries
+	 * @param acceptanceTestIds the acceptance test ids, as many as summaries
+	 * @return the id number of the first Requirement added; the others follow it in order
+	 * @throws IllegalArgumentException if the arrays are not the same length or hold a null
+	 * @throws IllegalStateException if there are not enough id numbers left, in which case nothing is added
+	 */
+	public int addRequirements(String[] summaries, String[] acceptanceTestIds) {
+		lock.writeLock().lock();
+		try {
+			int first = reqList.addRequirements(summaries, acceptanceTestIds);
+			if (journal != null) {
+				for (int i = 0; i < summaries.length; i++) {
+					journal.logAdd(reqList.getRequirementById(first + i));
+				}
+			}
+			return first;
+		} finally {
+			unlockWrite();
+		}
 	}
 	
 }
@@ -0,0 +1,258 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * RequirementsView class is an immutable point-in-time view of the Requirements of a RequirementsList, ordered by requirementId.
+ * It is a persistent trie of 32 way nodes indexed by five bits of the requirementId at a time, with FrozenRequirements at the leaves.
+ * A newer view copies only the nodes on the paths to the requirementIds that changed and shares every other node, and every
+ * unchanged FrozenRequirement, with the view before it.  Since nothing in a view is ever changed once it is built,
+ * readers can keep and iterate a view for as long as they like, from any thread, without a lock.
+ * @author mlee25 Michael Lee
+ */
+public final class RequirementsView implements Iterable<FrozenRequirement> {
+
+	/** Number of requirementId bits used at each level of the trie */
+	private static final int BITS = 5;
+
+	/** Number of slots in a node */
+	private static final int WIDTH = 1 << BITS;
+
+	/** Mask for the slot of a requirementId at one level */
+	private static final int MASK = WIDTH - 1;
+
+	/** View with no Requirements */
+	static final RequirementsView EMPTY = new RequirementsView(new Object[WIDTH], 0, 0);
+
+	/** Root node; the slots of a node at shift 0 hold FrozenRequirements, the others hold child nodes */
+	private final Object[] root;
+
+	/** Shift of the root level, a multiple of BITS */
+	private final int shift;
+
+	/** Number of Requirements in the view */
+	private final int size;
+
+	/**
+	 * Constructor for RequirementsView with the given trie.
+	 * @param root the root node
+	 * @param shift the shift of the root level
+	 * @param size the number of Requirements
+	 */
+	private RequirementsView(Object[] root, int shift, int size) {
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
+	}
+
+	/**
+	 * Getter for the number of Requirements in the view.
+	 * @return the number of Requirements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the Requirement with a requirementId as it was when the view was taken.
+	 * @param requirementId the requirementId
+	 * @return the FrozenRequirement, or null if the view has no Requirement with the requirementId
+	 */
+	public FrozenRequirement getRequirementById(int requirementId) {
+		if (requirementId < 0 || !fits(requirementId, shift)) {
+			return null;
+		}
+		Object[] node = root;
+		for (int s = shift; s > 0; s -= BITS) {
+			node = (Object[]) node[(requirementId >>> s) & MASK];
+			if (node == null) {
+				return null;
+			}
+		}
+		return (FrozenRequirement) node[requirementId & MASK];
+	}
+
+	/**
+	 * Gets a 2D Object array like RequirementsTrackerModel.getRequirementListAsArray, with 1 row for every Requirement in the view
+	 * ordered by requirementId and 3 columns for the id number, state and summary.
+	 * @return the 2D Object array
+	 */
+	public Object[][] getRequirementListAsArray() {
+		Object[][] result = new Object[size][3];
+		int i = 0;
+		for (FrozenRequirement r : this) {
+			result[i][0] = r.getRequirementId();
+			result[i][1] = r.getState();
+			result[i][2] = r.getSummary();
+			i++;
+		}
+		return result;
+	}
+
+	/**
+	 * Getter for an Iterator over the Requirements of the view in increasing requirementId order.
+	 * @return the Iterator
+	 */
+	@Override
+	public Iterator<FrozenRequirement> iterator() {
+		return new ViewIterator();
+	}
+
+	/**
+	 * Builds the view that differs from this one at the given requirementIds, copying each node on their paths once.
+	 * @param ids the requirementIds that changed, in increasing order
+	 * @param values the FrozenRequirement for each requirementId, or null where the Requirement was removed
+	 * @param count the number of requirementIds
+	 * @return the new view, or this view if count is 0
+	 */
+	RequirementsView update(int[] ids, FrozenRequirement[] values, int count) {
+		if (count == 0) {
+			return this;
+		}
+		int newSize = size;
+		for (int i = 0; i < count; i++) {
+			boolean had = getRequirementById(ids[i]) != null;
+			if (had && values[i] == null) {
+				newSize--;
+			} else if (!had && values[i] != null) {
+				newSize++;
+			}
+		}
+		Object[] newRoot = root;
+		int newShift = shift;
+		while (!fits(ids[count - 1], newShift)) {
+			Object[] up = new Object[WIDTH];
+			up[0] = newRoot;
+			newRoot = up;
+			newShift += BITS;
+		}
+		newRoot = update(newRoot, newShift, ids, values, 0, count);
+		return new RequirementsView(newRoot == null ? new Object[WIDTH] : newRoot, newShift, newSize);
+	}
+
+	/**
+	 * Copies a node and sets the slots for a run of requirementIds that all fall under it.
+	 * @param node the node, or null if there is none yet
+	 * @param s the shift of the node's level
+	 * @param ids the requirementIds, in increasing order
+	 * @param values the FrozenRequirement for each requirementId, or null to clear its slot
+	 * @param from the first position of the run
+	 * @param to one past the last position of the run
+	 * @return the copy, or null if it ends up empty
+	 */
+	private static Object[] update(Object[] node, int s, int[] ids, FrozenRequirement[] values, int from, int to) {
+		Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+		int i = from;
+		while (i < to) {
+			int slot = (ids[i] >>> s) & MASK;
+			int j = i + 1;
+			while (j < to && ((ids[j] >>> s) & MASK) == slot) {
+				j++;
+			}
+			copy[slot] = s == 0 ? values[i] : update((Object[]) copy[slot], s - BITS, ids, values, i, j);
+			i = j;
+		}
+		for (int k = 0; k < WIDTH; k++) {
+			if (copy[k] != null) {
+				return copy;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if a trie whose root is at the given shift has a slot for the requirementId.
+	 * @param requirementId the requirementId, not negative
+	 * @param s the shift of the root level
+	 * @return true if the requirementId fits
+	 */
+	private static boolean fits(int requirementId, int s) {
+		return s + BITS >= Integer.SIZE || (requirementId >>> (s + BITS)) == 0;
+	}
+
+	/**
+	 * Private inner class that walks the trie depth first, keeping the node and next slot of each level on a stack.
+	 */
+	private class ViewIterator implements Iterator<FrozenRequirement> {
+
+		/** Node being walked at each depth, the root at depth 0 */
+		private Object[][] nodes;
+
+		/** Next slot to look at in the node at each depth */
+		private int[] slots;
+
+		/** Depth of the node being walked */
+		private int depth;
+
+		/** Next FrozenRequirement to return, or null at the end */
+		private FrozenRequirement next;
+
+		/**
+		 * Constructor for ViewIterator that finds the first Requirement.
+		 */
+		ViewIterator() {
+			nodes = new Object[shift / BITS + 1][];
+			slots = new int[nodes.length];
+			nodes[0] = root;
+			advance();
+		}
+
+		/**
+		 * Returns true if there is another Requirement.
+		 * @return true if next will return a Requirement
+		 */
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		/**
+		 * Getter for the next Requirement.
+		 * @return the FrozenRequirement
+		 * @throws NoSuchElementException if there are no more Requirements
+		 */
+		@Override
+		public FrozenRequirement next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			FrozenRequirement result = next;
+			advance();
+			return result;
+		}
+
+		/**
+		 * Views cannot be changed, so nothing can be removed.
+		 * @throws UnsupportedOperationException always
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Moves to the next filled leaf slot, or sets next to null if there is none.
+		 */
+		private void advance() {
+			next = null;
+			while (depth >= 0) {
+				if (slots[depth] == WIDTH) {
+					depth--;
+					continue;
+				}
+				Object child = nodes[depth][slots[depth]++];
+				if (child == null) {
+					continue;
+				}
+				if (depth == nodes.length - 1) {
+					next = (FrozenRequirement) child;
+					return;
+				}
+				depth++;
+				nodes[depth] = (Object[]) child;
+				slots[depth] = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,326 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * RequirementsXMLReader class reads Requirements from a requirements XML file one &lt;Req&gt; element at a time.
+ * Reads the same format as RequirementsReader from the RequirementTrackerXML library, but uses a StAX pull parser
+ * and turns each element into a Requirement as it is read, so only one record is held in memory at a time.
+ * Can also read back the changes file written by RequirementsXMLWriter.appendSegment, see {@link #openChanges(String)}.
+ * @author mlee25 Michael Lee
+ */
+public class RequirementsXMLReader implements Closeable {
+
+	/** Factory for the pull parsers, set up to ignore DTDs and external entities */
+	private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+	static {
+		FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
+	/** Stream the XML is read from */
+	private InputStream in;
+
+	/** Pull parser over the stream */
+	private XMLStreamReader xml;
+
+	/** Requirement read by the last call to nextChange, or null if it read a deletion */
+	private Requirement change;
+
+	/** Id read by the last call to nextChange if it read a deletion, or -1 */
+	private int deletedId;
+
+	/**
+	 * Constructor for RequirementsXMLReader that reads from the specified file.
+	 * @param filename file to read
+	 * @throws IOException if the file cannot be opened
+	 */
+	public RequirementsXMLReader(String filename) throws IOException {
+		this(new BufferedInputStream(new FileInputStream(filename), 64 * 1024));
+	}
+
+	/**
+	 * Constructor for RequirementsXMLReader that reads from the specified stream.
+	 * @param in stream to read, closed when the reader is closed
+	 * @throws IllegalArgumentException if the stream does not start an XML document
+	 */
+	public RequirementsXMLReader(InputStream in) {
+		this.in = in;
+		try {
+			this.xml = FACTORY.createXMLStreamReader(in);
+		} catch (XMLStreamException e) {
+			throw new IllegalArgumentException("Invalid requirements file");
+		}
+	}
+
+	/**
+	 * Opens a reader over a changes file written by RequirementsXMLWriter.appendSegment.
+	 * The segments are read as if they were inside one &lt;Segments&gt; element.
+	 * Only the whole segments at the start of the file are read; a segment whose length or CRC-32 does not match,
+	 * such as one cut short by a crash, and everything after it are ignored.
+	 * @param filename changes file to read
+	 * @return the reader
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static RequirementsXMLReader openChanges(String filename) throws IOException {
+		long length = committedLength(filename);
+		InputStream segments = new BufferedInputStream(new LimitedInputStream(new FileInputStream(filename), length), 64 * 1024);
+		InputStream start = new ByteArrayInputStream("<Segments>".getBytes(StandardCharsets.UTF_8));
+		InputStream end = new ByteArrayInputStream("</Segments>".getBytes(StandardCharsets.UTF_8));
+		return new RequirementsXMLReader(new SequenceInputStream(new SequenceInputStream(start, segments), end));
+	}
+
+	/**
+	 * Getter for the length of the whole segments at the start of a changes file.
+	 * Each segment's header is checked, and its CRC-32 compared with the bytes that follow, before moving on to the next one.
+	 * @param filename changes file to check
+	 * @return the number of bytes up to the end of the last whole segment
+	 * @throws IOException if the file cannot be read
+	 */
+	static long committedLength(String filename) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try {
+			long size = file.length();
+			long position = 0;
+			byte[] header = new byte[RequirementsXMLWriter.SEGMENT_HEADER_LENGTH];
+			byte[] buffer = new byte[64 * 1024];
+			while (position + header.length <= size) {
+				file.seek(position);
+				file.readFully(header);
+				String text = new String(header, StandardCharsets.US_ASCII);
+				if (!text.startsWith(RequirementsXMLWriter.SEGMENT_START) || !text.endsWith(RequirementsXMLWriter.SEGMENT_END)) {
+					break;
+				}
+				int digits = RequirementsXMLWriter.SEGMENT_START.length();
+				long length;
+				long crc;
+				try {
+					length = Long.parseLong(text.substring(digits, digits + 10));
+					crc = Long.parseLong(text.substring(digits + 11, digits + 19), 16);
+				} catch (NumberFormatException e) {
+					break;
+				}
+				if (length <= 0 || length > size - position - header.length) {
+					break;
+				}
+				CRC32 check = new CRC32();
+				for (long left = length; left > 0;) {
+					int n = file.read(buffer, 0, (int) Math.min(buffer.length, left));
+					if (n < 0) {
+						return position;
+					}
+					check.update(buffer, 0, n);
+					left -= n;
+				}
+				if (check.getValue() != crc) {
+					break;
+				}
+				position += header.length + length;
+			}
+			return position;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Reads the next &lt;Req&gt; element and creates a Requirement from it.
+	 * @return the next Requirement, or null if there are no more &lt;Req&gt; elements
+	 * @throws IllegalArgumentException if the XML is malformed or the element is not a valid Requirement
+	 */
+	public Requirement next() {
+		try {
+			while (xml.hasNext()) {
+				if (xml.next() == XMLStreamConstants.START_ELEMENT && "Req".equals(xml.getLocalName())) {
+					return readReq();
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			throw new IllegalArgumentException("Invalid requirements file");
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid requirements file");
+		}
+	}
+
+	/**
+	 * Reads the next &lt;Req&gt; or &lt;Deleted&gt; element of a changes file.
+	 * Afterwards getRequirement returns the Requirement that was read, or getDeletedId returns the id that was deleted.
+	 * @return true if an element was read, or false if there are no more
+	 * @throws IllegalArgumentException if the XML is malformed or the element is not a valid Requirement
+	 */
+	public boolean nextChange() {
+		change = null;
+		deletedId = -1;
+		try {
+			while (xml.hasNext()) {
+				if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+					if ("Req".equals(xml.getLocalName())) {
+						change = readReq();
+						return true;
+					} else if ("Deleted".equals(xml.getLocalName())) {
+						deletedId = Integer.parseInt(xml.getElementText().trim());
+						return true;
+					}
+				}
+			}
+			return false;
+		} catch (XMLStreamException e) {
+			throw new IllegalArgumentException("Invalid requirements file");
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid requirements file");
+		}
+	}
+
+	/**
+	 * Getter for the Requirement read by the last call to nextChange.
+	 * @return the Requirement, or null if the last change was a deletion
+	 */
+	public Requirement getRequirement() {
+		return change;
+	}
+
+	/**
+	 * Getter for the id deleted by the last call to nextChange.
+	 * @return the deleted id, or -1 if the last change was a Requirement
+	 */
+	public int getDeletedId() {
+		return deletedId;
+	}
+
+	/**
+	 * Reads the children of the current &lt;Req&gt; element, in any order, and creates a Requirement from them.
+	 * @return the Requirement
+	 * @throws XMLStreamException if the XML is malformed
+	 */
+	private Requirement readReq() throws XMLStreamException {
+		int id = -1;
+		int priority = 0;
+		String state = null;
+		String summary = null;
+		String test = null;
+		String estimate = null;
+		String developer = null;
+		String rejection = null;
+		while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String name = xml.getLocalName();
+			String text = xml.getElementText();
+			if ("id".equals(name)) {
+				id = Integer.parseInt(text.trim());
+			} else if ("state".equals(name)) {
+				state = text;
+			} else if ("summary".equals(name)) {
+				summary = text;
+			} else if ("test".equals(name)) {
+				test = text;
+			} else if ("priority".equals(name)) {
+				priority = Integer.parseInt(text.trim());
+			} else if ("estimate".equals(name)) {
+				estimate = text;
+			} else if ("developer".equals(name)) {
+				developer = text;
+			} else if ("rejection".equals(name)) {
+				rejection = text;
+			}
+		}
+		return new Requirement(id, state, summary, test, priority, estimate, developer, rejection);
+	}
+
+	/**
+	 * Closes the parser and the underlying stream.
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			xml.close();
+		} catch (XMLStreamException e) {
+			// the stream is still closed below
+		}
+		in.close();
+	}
+
+	/**
+	 * LimitedInputStream class reads no further than a given number of bytes into a stream.
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+
+		/** Number of bytes left to read */
+		private long left;
+
+		/**
+		 * Constructor for LimitedInputStream.
+		 * @param in stream to read, closed when this stream is closed
+		 * @param limit number of bytes to read
+		 */
+		LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.left = limit;
+		}
+
+		/**
+		 * Reads the next byte.
+		 * @return the byte, or -1 at the limit or the end of the stream
+		 * @throws IOException if the stream cannot be read
+		 */
+		@Override
+		public int read() throws IOException {
+			if (left <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				left--;
+			}
+			return b;
+		}
+
+		/**
+		 * Reads up to len bytes.
+		 * @param b buffer to read into
+		 * @param off position in the buffer to start at
+		 * @param len largest number of bytes to read
+		 * @return the number of bytes read, or -1 at the limit or the end of the stream
+		 * @throws IOException if the stream cannot be read
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (left <= 0) {
+				return -1;
+			}
+			int n = super.read(b, off, (int) Math.min(len, left));
+			if (n > 0) {
+				left -= n;
+			}
+			return n;
+		}
+
+		/**
+		 * Getter for the number of bytes that can be read without blocking.
+		 * @return the number of bytes, no more than are left before the limit
+		 * @throws IOException if the stream cannot be read
+		 */
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), left);
+		}
+	}
+}
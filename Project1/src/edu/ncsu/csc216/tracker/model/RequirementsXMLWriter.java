@@ -0,0 +1,259 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * RequirementsXMLWriter class writes Requirements to a requirements XML file one &lt;Req&gt; element at a time.
+ * Writes the same bytes as RequirementsWriter from the RequirementTrackerXML library, but each Requirement goes straight
+ * to a buffered stream instead of being collected as a Req and marshaled at the end, so memory use does not grow with the list.
+ * Can also append a &lt;Segment&gt; of changed and &lt;Deleted&gt; Requirements to a changes file, see {@link #appendSegment(String)}.
+ * @author mlee25 Michael Lee
+ */
+public class RequirementsXMLWriter implements Closeable {
+
+	/** Declaration at the start of every requirements file */
+	private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+	/** Size of the output buffer in chars */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Start of the comment in front of each segment of a changes file */
+	static final String SEGMENT_START = "<!--Segment ";
+
+	/** End of the comment in front of each segment of a changes file */
+	static final String SEGMENT_END = "-->\n";
+
+	/** Length in bytes of the comment in front of each segment: the start, a 10 digit length, a space, an 8 digit CRC and the end */
+	static final int SEGMENT_HEADER_LENGTH = SEGMENT_START.length() + 10 + 1 + 8 + SEGMENT_END.length();
+
+	/** Buffered writer the XML is written to */
+	private Writer out;
+
+	/** Name of the element that holds the written Requirements */
+	private String root;
+
+	/** Number of Requirements written so far */
+	private int count;
+
+	/** Changes file the segment is appended to, or null if this writer does not write a segment */
+	private RandomAccessFile segment;
+
+	/** Stream that computes the CRC of the segment, or null if this writer does not write a segment */
+	private CheckedOutputStream checked;
+
+	/** Position of the segment's header in the changes file */
+	private long headerPosition;
+
+	/** True from the start of an element until it is fully written, so an element cut short by an exception is noticed */
+	private boolean writing;
+
+	/**
+	 * Constructor for RequirementsXMLWriter that writes to the specified file, replacing it if it exists.
+	 * @param filename file to write
+	 * @throws IOException if the file cannot be opened
+	 */
+	public RequirementsXMLWriter(String filename) throws IOException {
+		this(new FileOutputStream(filename));
+	}
+
+	/**
+	 * Constructor for RequirementsXMLWriter that writes to the specified stream.
+	 * @param out stream to write, closed when the writer is closed
+	 * @throws IOException if the declaration cannot be written
+	 */
+	public RequirementsXMLWriter(OutputStream out) throws IOException {
+		this(out, "Reqs");
+		this.out.write(HEADER);
+	}
+
+	/**
+	 * Constructor for RequirementsXMLWriter that writes the Requirements inside the given element and no declaration.
+	 * @param out stream to write, closed when the writer is closed
+	 * @param root name of the element that holds the Requirements
+	 */
+	private RequirementsXMLWriter(OutputStream out, String root) {
+		this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		this.root = root;
+	}
+
+	/**
+	 * Opens a writer that appends one &lt;Segment&gt; element to the end of a changes file, creating the file if it does not exist.
+	 * The file is a series of segments with no declaration or single root, so a new segment never rewrites the ones before it.
+	 * Each segment follows a comment that holds its length in bytes and its CRC-32, written as zeros until the writer is closed,
+	 * so a segment cut short by a crash is never mistaken for a whole one.  Anything after the last whole segment,
+	 * such as a segment that was being written when the program stopped, is cut off before the new segment is appended.
+	 * RequirementsXMLReader.openChanges reads the whole segments back in order.
+	 * @param filename changes file to append to
+	 * @return the writer for the new segment
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static RequirementsXMLWriter appendSegment(String filename) throws IOException {
+		long committed = new File(filename).exists() ? RequirementsXMLReader.committedLength(filename) : 0;
+		RandomAccessFile file = new RandomAccessFile(filename, "rw");
+		try {
+			file.setLength(committed);
+			file.seek(committed);
+			file.write(segmentHeader(0, 0));
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(file.getChannel()), new CRC32());
+		RequirementsXMLWriter writer = new RequirementsXMLWriter(checked, "Segment");
+		writer.segment = file;
+		writer.checked = checked;
+		writer.headerPosition = committed;
+		return writer;
+	}
+
+	/**
+	 * Getter for the comment in front of a segment of a changes file.
+	 * @param length the length of the segment in bytes, not counting the comment, or 0 while it is being written
+	 * @param crc the CRC-32 of the segment
+	 * @return the comment as ASCII bytes, SEGMENT_HEADER_LENGTH long
+	 */
+	static byte[] segmentHeader(long length, long crc) {
+		return String.format("%s%010d %08x%s", SEGMENT_START, length, crc, SEGMENT_END).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Writes the &lt;Req&gt; element for a Requirement.
+	 * @param r the Requirement to write
+	 * @throws IOException if the element cannot be written
+	 */
+	public void write(Requirement r) throws IOException {
+		start();
+		out.write("<Req><id>");
+		out.write(Integer.toString(r.getRequirementId()));
+		out.write("</id>");
+		writeElement("state", r.getState().getStateName());
+		writeElement("summary", r.getSummary());
+		writeElement("test", r.getAcceptanceTestId());
+		out.write("<priority>");
+		out.write(Integer.toString(r.getPriority()));
+		out.write("</priority>");
+		writeElement("estimate", r.getEstimate());
+		writeElement("developer", r.getDeveloper());
+		if (r.getRejectionReason() != null) {
+			writeElement("rejection", r.getRejectionReasonName());
+		}
+		out.write("</Req>");
+		writing = false;
+	}
+
+	/**
+	 * Writes a &lt;Deleted&gt; element recording that the Requirement with the given id was deleted.
+	 * @param requirementId the id of the deleted Requirement
+	 * @throws IOException if the element cannot be written
+	 */
+	public void writeDeleted(int requirementId) throws IOException {
+		start();
+		out.write("<Deleted>");
+		out.write(Integer.toString(requirementId));
+		out.write("</Deleted>");
+		writing = false;
+	}
+
+	/**
+	 * Getter for the number of Requirements and deletions written so far.
+	 * @return the number of elements written
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Ends the document and closes the underlying stream.  For a segment, also fills in its length and CRC-32,
+	 * which is what makes it count when the changes file is read, unless an element was left unfinished by an exception.
+	 * @throws IOException if the document cannot be ended or the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			out.write(count == 0 ? "<" + root + "/>" : "</" + root + ">");
+			if (segment != null && !writing) {
+				out.flush();
+				long length = segment.getFilePointer() - headerPosition - SEGMENT_HEADER_LENGTH;
+				segment.seek(headerPosition);
+				segment.write(segmentHeader(length, checked.getChecksum().getValue()));
+			}
+		} finally {
+			try {
+				out.close();
+			} finally {
+				if (segment != null) {
+					segment.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens the root element before the first element written and counts the element.
+	 * @throws IOException if the root element cannot be written
+	 */
+	private void start() throws IOException {
+		writing = true;
+		if (count == 0) {
+			out.write('<');
+			out.write(root);
+			out.write('>');
+		}
+		count++;
+	}
+
+	/**
+	 * Writes an element holding escaped text, or nothing if the text is null.
+	 * @param name the element name
+	 * @param text the text of the element
+	 * @throws IOException if the element cannot be written
+	 */
+	private void writeElement(String name, String text) throws IOException {
+		if (text == null) {
+			return;
+		}
+		out.write('<');
+		out.write(name);
+		out.write('>');
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			String escape = null;
+			switch (text.charAt(i)) {
+			case '&':
+				escape = "&amp;";
+				break;
+			case '<':
+				escape = "&lt;";
+				break;
+			case '>':
+				escape = "&gt;";
+				break;
+			default:
+				break;
+			}
+			if (escape != null) {
+				out.write(text, start, i - start);
+				out.write(escape);
+				start = i + 1;
+			}
+		}
+		out.write(text, start, text.length() - start);
+		out.write("</");
+		out.write(name);
+		out.write('>');
+	}
+}
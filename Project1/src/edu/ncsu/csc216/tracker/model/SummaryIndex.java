@@ -0,0 +1,132 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * SummaryIndex class is an inverted index from the words of Requirement summaries to the sorted requirementIds of the summaries
+ * that contain them.  A word is a run of letters and digits, compared without case.
+ * The index is updated one Requirement at a time, and since new requirementIds are larger than the ones before them,
+ * adding a Requirement almost always appends to the end of each posting list.
+ * @author mlee25 Michael Lee
+ */
+class SummaryIndex {
+
+	/** Postings for each word */
+	private HashMap<String, PostingList> index;
+
+	/**
+	 * Constructor for an empty SummaryIndex.
+	 */
+	SummaryIndex() {
+		index = new HashMap<String, PostingList>();
+	}
+
+	/**
+	 * Adds a requirementId to the postings of each word of a summary.
+	 * @param requirementId the requirementId
+	 * @param summary the summary
+	 */
+	void add(int requirementId, String summary) {
+		ArrayList<String> words = words(summary);
+		for (int i = 0; i < words.size(); i++) {
+			PostingList p = index.get(words.get(i));
+			if (p == null) {
+				p = new PostingList();
+				index.put(words.get(i), p);
+			}
+			p.add(requirementId);
+		}
+	}
+
+	/**
+	 * Removes a requirementId from the postings of each word of a summary, dropping words that no summary has left.
+	 * @param requirementId the requirementId
+	 * @param summary the summary the requirementId was added with
+	 */
+	void remove(int requirementId, String summary) {
+		ArrayList<String> words = words(summary);
+		for (int i = 0; i < words.size(); i++) {
+			PostingList p = index.get(words.get(i));
+			if (p != null) {
+				p.remove(requirementId);
+				if (p.size() == 0) {
+					index.remove(words.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter for the requirementIds of the summaries that contain every word of a query.
+	 * The posting lists are intersected from the shortest up.
+	 * @param query the words to look for
+	 * @return the requirementIds in increasing order, empty if the query has no words
+	 */
+	int[] searchAll(String query) {
+		ArrayList<String> words = words(query);
+		if (words.isEmpty()) {
+			return new int[0];
+		}
+		PostingList[] lists = new PostingList[words.size()];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = index.get(words.get(i));
+			if (lists[i] == null) {
+				return new int[0];
+			}
+		}
+		return PostingList.intersect(lists);
+	}
+
+	/**
+	 * Getter for the requirementIds of the summaries that contain at least one word of a query.
+	 * @param query the words to look for
+	 * @return the requirementIds in increasing order, empty if the query has no words
+	 */
+	int[] searchAny(String query) {
+		ArrayList<String> words = words(query);
+		BitSet found = new BitSet();
+		for (int i = 0; i < words.size(); i++) {
+			PostingList p = index.get(words.get(i));
+			if (p != null) {
+				for (int j = 0; j < p.size(); j++) {
+					found.set(p.get(j));
+				}
+			}
+		}
+		int[] result = new int[found.cardinality()];
+		int n = 0;
+		for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+			result[n++] = id;
+		}
+		return result;
+	}
+
+	/**
+	 * Splits text into its distinct words in lower case.
+	 * @param text the text, may be null
+	 * @return the distinct words in the order they first appear
+	 */
+	static ArrayList<String> words(String text) {
+		ArrayList<String> words = new ArrayList<String>();
+		if (text == null) {
+			return words;
+		}
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (inWord && start < 0) {
+				start = i;
+			} else if (!inWord && start >= 0) {
+				String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+				if (!words.contains(word)) {
+					words.add(word);
+				}
+				start = -1;
+			}
+		}
+		return words;
+	}
+}
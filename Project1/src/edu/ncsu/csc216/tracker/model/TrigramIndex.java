@@ -0,0 +1,140 @@
+package edu.ncsu.csc216.tracker.model;
+
+/**
+ * TrigramIndex class maps every three character substring of the acceptance test ids to the sorted requirementIds
+ * of the ids that contain it.  A substring of three or more characters can only occur in ids that contain each of its
+ * trigrams, so a substring search intersects those posting lists and then checks the few candidates left.
+ * Each trigram is packed into a long, three 16 bit chars, and the posting lists are kept in an open addressing table
+ * keyed by that long, so indexing an id does not create a String for each of its trigrams.
+ * A trigram whose posting list empties keeps its slot, since the trigrams in use are few and change little.
+ * @author mlee25 Michael Lee
+ */
+class TrigramIndex {
+
+	/** Length of the substrings indexed */
+	static final int GRAM = 3;
+
+	/** Constant for the golden ratio multiplier used to spread the keys */
+	private static final long PHI = 0x9E3779B97F4A7C15L;
+
+	/** Packed trigrams, valid only where lists is not null */
+	private long[] keys;
+
+	/** Posting list of each packed trigram, null for empty slots */
+	private PostingList[] lists;
+
+	/** Number of trigrams in the table */
+	private int size;
+
+	/** Mask used to turn a hash into a slot, always the table length minus one */
+	private int mask;
+
+	/**
+	 * Constructor for an empty TrigramIndex.
+	 */
+	TrigramIndex() {
+		keys = new long[64];
+		lists = new PostingList[64];
+		mask = 63;
+	}
+
+	/**
+	 * Adds a requirementId to the postings of each trigram of an acceptance test id.
+	 * @param requirementId the requirementId
+	 * @param acceptanceTestId the acceptance test id
+	 */
+	void add(int requirementId, String acceptanceTestId) {
+		if (acceptanceTestId == null) {
+			return;
+		}
+		for (int i = 0; i + GRAM <= acceptanceTestId.length(); i++) {
+			long gram = pack(acceptanceTestId, i);
+			int at = find(gram);
+			if (lists[at] == null) {
+				keys[at] = gram;
+				lists[at] = new PostingList();
+				if (++size > lists.length / 2) {
+					resize();
+					at = find(gram);
+				}
+			}
+			lists[at].add(requirementId);
+		}
+	}
+
+	/**
+	 * Removes a requirementId from the postings of each trigram of an acceptance test id.
+	 * @param requirementId the requirementId
+	 * @param acceptanceTestId the acceptance test id the requirementId was added with
+	 */
+	void remove(int requirementId, String acceptanceTestId) {
+		if (acceptanceTestId == null) {
+			return;
+		}
+		for (int i = 0; i + GRAM <= acceptanceTestId.length(); i++) {
+			PostingList p = lists[find(pack(acceptanceTestId, i))];
+			if (p != null) {
+				p.remove(requirementId);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the requirementIds whose acceptance test ids may contain a substring of at least three characters.
+	 * Every id that does contain it is returned, but the caller still has to check the candidates.
+	 * @param substring the substring, at least GRAM characters long
+	 * @return the candidate requirementIds in increasing order
+	 */
+	int[] candidates(String substring) {
+		PostingList[] grams = new PostingList[substring.length() - GRAM + 1];
+		for (int i = 0; i < grams.length; i++) {
+			grams[i] = lists[find(pack(substring, i))];
+			if (grams[i] == null || grams[i].size() == 0) {
+				return new int[0];
+			}
+		}
+		return PostingList.intersect(grams);
+	}
+
+	/**
+	 * Getter for the trigram at a position of a string packed into a long.
+	 * @param s the string
+	 * @param i the position of the first char of the trigram
+	 * @return the packed trigram
+	 */
+	private static long pack(String s, int i) {
+		return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+	}
+
+	/**
+	 * Getter for the slot that holds a packed trigram, or the empty slot where it would go.
+	 * @param gram the packed trigram
+	 * @return the slot
+	 */
+	private int find(long gram) {
+		long h = gram * PHI;
+		int i = (int) (h ^ (h >>> 32)) & mask;
+		while (lists[i] != null && keys[i] != gram) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Moves all trigrams to a table with twice as many slots.
+	 */
+	private void resize() {
+		long[] oldKeys = keys;
+		PostingList[] oldLists = lists;
+		keys = new long[oldKeys.length * 2];
+		lists = new PostingList[oldLists.length * 2];
+		mask = lists.length - 1;
+		for (int i = 0; i < oldLists.length; i++) {
+			if (oldLists[i] != null) {
+				int at = find(oldKeys[i]);
+				keys[at] = oldKeys[i];
+				lists[at] = oldLists[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package edu.ncsu.csc216.tracker.model;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * WorkQueue class orders the Requirements in one state by priority, 1 first, and then by requirementId,
+ * so the next Requirement to work on is found in O(log n) instead of by sorting the list.
+ * Each Requirement is queued under a key made of its priority and requirementId, kept in a binary heap of longs so that
+ * queuing one allocates nothing.  Taking a Requirement out only marks it: its key stays in the heap until it reaches the top
+ * or the heap is rebuilt, which happens once more than half of the keys are stale.  The key at the top is always live,
+ * so reading the first key changes nothing and is safe for concurrent readers.
+ * The priority each requirementId is queued with is kept in a small open addressing table of the queued ids,
+ * so the queue's size does not depend on how large the requirementIds are.
+ * @author mlee25 Michael Lee
+ */
+class WorkQueue {
+
+	/** Bits of a mark that record which priorities, 0 for none through 3, have a key in the heap */
+	private static final int IN_HEAP = 0x0F;
+
+	/** Shift of the queued priority plus one within a mark */
+	private static final int QUEUED = 4;
+
+	/** Smallest number of slots in the table and the heap */
+	private static final int MIN_CAPACITY = 16;
+
+	/** Constant for the golden ratio multiplier used to spread the requirementIds */
+	private static final int PHI = 0x9E3779B9;
+
+	/** Requirement id stored in an empty slot of the table */
+	private static final int EMPTY = -1;
+
+	/** Keys in the heap, priority in the high half and requirementId in the low half, valid up to heapSize; some may be stale */
+	private long[] heap;
+
+	/** Number of keys in the heap */
+	private int heapSize;
+
+	/** Number of queued Requirements */
+	private int size;
+
+	/** requirementIds in the table, EMPTY for empty slots */
+	private int[] ids;
+
+	/**
+	 * For each slot of the table, bit p is set if the heap holds a key for priority p, and the bits from QUEUED up hold
+	 * the priority the requirementId is queued with plus one, or 0 if it is not queued
+	 */
+	private byte[] marks;
+
+	/** Number of slots of the table in use, including ids whose marks are 0 */
+	private int used;
+
+	/**
+	 * Constructor for an empty WorkQueue.
+	 */
+	WorkQueue() {
+		heap = new long[MIN_CAPACITY];
+		allocate(MIN_CAPACITY);
+	}
+
+	/**
+	 * Queues a Requirement that is not queued yet.
+	 * @param r the Requirement
+	 */
+	void add(Requirement r) {
+		int id = r.getRequirementId();
+		int p = r.getPriority();
+		int slot = find(id);
+		if (slot < 0) {
+			if (used >= ids.length / 2) {
+				rebuild();
+			}
+			slot = insert(id);
+		}
+		int m = marks[slot];
+		if ((m & (1 << p)) == 0) {
+			push(key(p, id));
+			m |= 1 << p;
+		}
+		marks[slot] = (byte) ((m & IN_HEAP) | ((p + 1) << QUEUED));
+		size++;
+	}
+
+	/**
+	 * Takes a requirementId out of the queue if it is queued.
+	 * @param requirementId the requirementId
+	 */
+	void remove(int requirementId) {
+		int slot = find(requirementId);
+		if (slot < 0 || (marks[slot] >> QUEUED) == 0) {
+			return;
+		}
+		marks[slot] &= IN_HEAP;
+		size--;
+		if (heapSize > 2 * size + MIN_CAPACITY) {
+			rebuild();
+		} else {
+			dropStale();
+		}
+	}
+
+	/**
+	 * Getter for the key of the first Requirement in the queue.
+	 * @return the key, or -1 if the queue is empty
+	 */
+	long firstKey() {
+		return heapSize == 0 ? -1 : heap[0];
+	}
+
+	/**
+	 * Getter for the number of queued Requirements.
+	 * @return the number of Requirements
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the requirementId in a key.
+	 * @param key the key
+	 * @return the requirementId
+	 */
+	static int idOf(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Getter for the key of a priority and requirementId, ordered by priority and then requirementId.
+	 * @param priority the priority
+	 * @param requirementId the requirementId, not negative
+	 * @return the key
+	 */
+	private static long key(int priority, int requirementId) {
+		return ((long) priority << 32) | requirementId;
+	}
+
+	/**
+	 * Pops stale keys off the top of the heap until the top is live or the heap is empty.
+	 */
+	private void dropStale() {
+		while (heapSize > 0) {
+			long key = heap[0];
+			int p = (int) (key >>> 32);
+			int slot = find(idOf(key));
+			if ((marks[slot] >> QUEUED) == p + 1) {
+				return;
+			}
+			marks[slot] &= ~(1 << p);
+			pop();
+		}
+	}
+
+	/**
+	 * Adds a key to the heap.
+	 * @param key the key
+	 */
+	private void push(long key) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		int i = heapSize++;
+		while (i > 0 && heap[(i - 1) / 2] > key) {
+			heap[i] = heap[(i - 1) / 2];
+			i = (i - 1) / 2;
+		}
+		heap[i] = key;
+	}
+
+	/**
+	 * Removes the smallest key from the heap.
+	 */
+	private void pop() {
+		long key = heap[--heapSize];
+		int i = 0;
+		while (2 * i + 1 < heapSize) {
+			int child = 2 * i + 1;
+			if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (heap[child] >= key) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = key;
+	}
+
+	/**
+	 * Drops the stale keys and the ids that are no longer queued, and sizes the heap and the table for what is left.
+	 * A sorted array is a valid heap, so the live keys are sorted rather than pushed one at a time.
+	 */
+	private void rebuild() {
+		int n = 0;
+		for (int i = 0; i < heapSize; i++) {
+			long key = heap[i];
+			if ((marks[find(idOf(key))] >> QUEUED) == (int) (key >>> 32) + 1) {
+				heap[n++] = key;
+			}
+		}
+		Arrays.sort(heap, 0, n);
+		heapSize = n;
+		heap = Arrays.copyOf(heap, Math.max(MIN_CAPACITY, n * 2));
+		int capacity = MIN_CAPACITY;
+		while (capacity < n * 4) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+		for (int i = 0; i < n; i++) {
+			int p = (int) (heap[i] >>> 32);
+			marks[insert(idOf(heap[i]))] = (byte) ((1 << p) | ((p + 1) << QUEUED));
+		}
+	}
+
+	/**
+	 * Replaces the table with an empty one.
+	 * @param capacity the number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		ids = new int[capacity];
+		Arrays.fill(ids, EMPTY);
+		marks = new byte[capacity];
+		used = 0;
+	}
+
+	/**
+	 * Getter for the slot of a requirementId in the table.
+	 * @param requirementId the requirementId
+	 * @return the slot, or -1 if the requirementId is not in the table
+	 */
+	private int find(int requirementId) {
+		int mask = ids.length - 1;
+		for (int slot = home(requirementId); ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (ids[slot] == requirementId) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Puts a requirementId that is not in the table into the first empty slot of its probe run.
+	 * @param requirementId the requirementId
+	 * @return the slot, with marks 0
+	 */
+	private int insert(int requirementId) {
+		int mask = ids.length - 1;
+		int slot = home(requirementId);
+		while (ids[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		ids[slot] = requirementId;
+		marks[slot] = 0;
+		used++;
+		return slot;
+	}
+
+	/**
+	 * Getter for the slot where the probe run of a requirementId starts.
+	 * @param requirementId the requirementId
+	 * @return the slot
+	 */
+	private int home(int requirementId) {
+		int h = requirementId * PHI;
+		return (h ^ (h >>> 16)) & (ids.length - 1);
+	}
+}
@@ -0,0 +1,100 @@
+package edu.ncsu.csc216.tracker.requirement;
+
+import java.util.Locale;
+
+/**
+ * EstimateParser class turns the free-form estimate of a Requirement, such as "1 hour" or "2.5 days", into a number of minutes.
+ * A number followed by a unit is understood: minutes (m, min, mins, minute, minutes), hours (h, hr, hrs, hour, hours),
+ * working days of 8 hours (d, day, days) and working weeks of 5 days (w, wk, wks, week, weeks).
+ * A number with no unit is taken as hours.  Anything else cannot be parsed.
+ * @author mlee25 Michael Lee
+ */
+public class EstimateParser {
+
+	/** Value returned for an estimate that is missing or cannot be parsed */
+	public static final int UNKNOWN = -1;
+
+	/** Minutes in an hour */
+	private static final int HOUR = 60;
+
+	/** Minutes in a working day */
+	private static final int DAY = 8 * HOUR;
+
+	/** Minutes in a working week */
+	private static final int WEEK = 5 * DAY;
+
+	/**
+	 * Constructor for EstimateParser is private because it only has static methods.
+	 */
+	private EstimateParser() {
+	}
+
+	/**
+	 * Parses an estimate into a whole number of minutes, rounded to the nearest minute.
+	 * @param estimate the estimate, may be null
+	 * @return the number of minutes, or UNKNOWN if the estimate is null or cannot be parsed
+	 */
+	public static int toMinutes(String estimate) {
+		if (estimate == null) {
+			return UNKNOWN;
+		}
+		String s = estimate.trim().toLowerCase(Locale.ROOT);
+		int end = 0;
+		while (end < s.length() && (Character.isDigit(s.charAt(end)) || s.charAt(end) == '.')) {
+			end++;
+		}
+		if (end == 0) {
+			return UNKNOWN;
+		}
+		double amount;
+		try {
+			amount = Double.parseDouble(s.substring(0, end));
+		} catch (NumberFormatException e) {
+			return UNKNOWN;
+		}
+		int unit = unitMinutes(s.substring(end).trim());
+		if (unit == UNKNOWN) {
+			return UNKNOWN;
+		}
+		double minutes = Math.rint(amount * unit);
+		if (minutes > Integer.MAX_VALUE) {
+			return UNKNOWN;
+		}
+		return (int) minutes;
+	}
+
+	/**
+	 * Getter for the number of minutes in a unit.
+	 * @param unit the unit, in lower case
+	 * @return the minutes in one of the unit, or UNKNOWN if the unit is not understood
+	 */
+	private static int unitMinutes(String unit) {
+		switch (unit) {
+		case "m":
+		case "min":
+		case "mins":
+		case "minute":
+		case "minutes":
+			return 1;
+		case "":
+		case "h":
+		case "hr":
+		case "hrs":
+		case "hour":
+		case "hours":
+			return HOUR;
+		case "d":
+		case "day":
+		case "days":
+			return DAY;
+		case "w":
+		case "wk":
+		case "wks":
+		case "week":
+		case "weeks":
+			return WEEK;
+		default:
+			return UNKNOWN;
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package edu.ncsu.csc216.tracker.requirement;
 
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
 import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
 import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 import edu.ncsu.csc216.tracker.xml.Req;
 
 /**
@@ -9,7 +11,9 @@ import edu.ncsu.csc216.tracker.xml.Req;
  * Requirement is the Context class of the State design pattern. 
  * It maintains the Requirements current state and delegates Commands for the current state to handle.
  * A Requirement knows its requirementID, state, summary, estimate, developer, acceptanceTestId, and its Rejection reason. 
- * Includes inner classes for the six concrete state classes, which implement RequirementState.
+ * The six concrete states are shared instances of a nested class that implements RequirementState.
+ * Transitions are looked up in a table indexed by StateValue and CommandValue.
+ * Summaries, acceptance test ids, estimates and developers are shared through the StringPool of the list that holds the Requirement.
  * 
  * @author mlee25 Michael Lee
  *
@@ -38,6 +42,11 @@ public class Requirement {
 	public static final String OUT_OF_SCOPE_NAME = "Out of Scope";
 	/** Constant for rejection reason: Inappropriate */
 	public static final String INAPPROPRIATE_NAME = "Inappropriate";
+	/**
+	 * Largest id number a Requirement can have.  A RequirementsList keeps its change sets as bit sets indexed by id
+	 * and hands out ids no larger than this, so one bad id in a file must not make them hundreds of MB.
+	 */
+	public static final int MAX_ID = 9999999;
 
 	/** Requirement counter variable */
 	private static int counter = 0;
@@ -57,32 +66,69 @@ public class Requirement {
 	/** Requirement's estimate */
 	private String estimate;
 	
+	/** Requirement's estimate in minutes, parsed once when the estimate is set, or EstimateParser.UNKNOWN */
+	private int estimateMinutes = EstimateParser.UNKNOWN;
+	
 	/** Requirement's developer */
 	private String developer;
 	
 	/** instance variable for Rejection */
 	private Rejection reason;
 	
-	/** instance variable for AcceptedState */
-	private AcceptedState accepted = new AcceptedState();
+	/** Version of this Requirement, increased by every change so a client can tell if it changed since it was read */
+	private int version;
+	
+	/** Shared instance of the Submitted state */
+	private static final RequirementState SUBMITTED = new TableState(StateValue.SUBMITTED, SUBMITTED_NAME);
+	
+	/** Shared instance of the Accepted state */
+	private static final RequirementState ACCEPTED = new TableState(StateValue.ACCEPTED, ACCEPTED_NAME);
+	
+	/** Shared instance of the Rejected state */
+	private static final RequirementState REJECTED = new TableState(StateValue.REJECTED, REJECTED_NAME);
+	
+	/** Shared instance of the Working state */
+	private static final RequirementState WORKING = new TableState(StateValue.WORKING, WORKING_NAME);
 	
-	/** instance variable for CompletedState */
-	private CompletedState completed = new CompletedState();
+	/** Shared instance of the Completed state */
+	private static final RequirementState COMPLETED = new TableState(StateValue.COMPLETED, COMPLETED_NAME);
 	
-	/** instance variable for RejectedState */
-	private RejectedState rejected = new RejectedState();
+	/** Shared instance of the Verified state */
+	private static final RequirementState VERIFIED = new TableState(StateValue.VERIFIED, VERIFIED_NAME);
 	
-	/** instance variable for SubmittedState */
-	private SubmittedState submitted = new SubmittedState();
+	/** Next state for [StateValue ordinal][CommandValue ordinal], null if the command is invalid for the state */
+	private static final RequirementState[][] TRANSITIONS = new RequirementState[StateValue.values().length][CommandValue.values().length];
 	
-	/** instance variable for VerifiedState */
-	private VerifiedState verified = new VerifiedState();
+	static {
+		addTransition(SUBMITTED, CommandValue.ACCEPT, ACCEPTED);
+		addTransition(SUBMITTED, CommandValue.REJECT, REJECTED);
+		addTransition(ACCEPTED, CommandValue.ASSIGN, WORKING);
+		addTransition(ACCEPTED, CommandValue.REJECT, REJECTED);
+		addTransition(REJECTED, CommandValue.REVISE, SUBMITTED);
+		addTransition(WORKING, CommandValue.COMPLETE, COMPLETED);
+		addTransition(WORKING, CommandValue.REJECT, REJECTED);
+		addTransition(COMPLETED, CommandValue.PASS, VERIFIED);
+		addTransition(COMPLETED, CommandValue.FAIL, WORKING);
+		addTransition(COMPLETED, CommandValue.ASSIGN, WORKING);
+		addTransition(COMPLETED, CommandValue.REJECT, REJECTED);
+		addTransition(VERIFIED, CommandValue.ASSIGN, WORKING);
+		addTransition(VERIFIED, CommandValue.REJECT, REJECTED);
+	}
+	
+	/** Shared states indexed by StateValue ordinal */
+	private static final RequirementState[] STATES = {SUBMITTED, ACCEPTED, REJECTED, WORKING, COMPLETED, VERIFIED};
 	
-	/** instance variable for WorkingState */
-	private WorkingState working = new WorkingState();
+	/** Rejection reason names indexed by Rejection ordinal */
+	private static final String[] REJECTION_NAMES = {DUPLICATE_NAME, INFEASIBLE_NAME, TOO_LARGE_NAME, OUT_OF_SCOPE_NAME, INAPPROPRIATE_NAME};
 	
 	/** instance variable for current state */
-	private RequirementState state = new SubmittedState();
+	private RequirementState state = SUBMITTED;
+	
+	/** Listener told about each transition, or null if nothing is listening */
+	private RequirementListener listener;
+	
+	/** Pool that shares the strings of this Requirement with the rest of its list, or null if it is not in a list */
+	private StringPool pool;
 	
 	/**
 	 * Constructor for Requirement. Sets the state to Submitted and sets the summary and the acceptance test id.
@@ -93,9 +139,8 @@ public class Requirement {
 		if(summary == null || acceptanceTestId == null) {
 			throw new IllegalArgumentException("null summary or id");
 		} 
-		this.summary = summary;			
-		setAcceptanceTestId(acceptanceTestId);
-		this.setState("Submitted");
+		this.summary = summary;
+		replaceAcceptanceTestId(acceptanceTestId, null);
 		this.requirementId = counter;
 		incrementCounter();
 	}
@@ -109,6 +154,103 @@ public class Requirement {
 		this(r.getSummary(), r.getTest());
 	}
 	
+	/**
+	 * Constructor for Requirement that restores a saved Requirement with its id and current state.
+	 * Does not use or change the counter.
+	 * The fields are checked against the state in the same way the RequirementTrackerXML library checks a Req.
+	 * @param requirementId the Requirement's id number
+	 * @param stateName the name of the Requirement's state
+	 * @param summary the Requirement's summary
+	 * @param acceptanceTestId the Requirement's acceptance test id
+	 * @param priority the Requirement's priority, 0 if it has none
+	 * @param estimate the Requirement's estimate, or null
+	 * @param developer the Requirement's developer, or null
+	 * @param rejection the name of the Requirement's rejection reason, or null
+	 * @throws IllegalArgumentException if the id is negative or larger than MAX_ID, or a field is missing or invalid for the state
+	 */
+	public Requirement(int requirementId, String stateName, String summary, String acceptanceTestId, int priority, String estimate, String developer, String rejection) {
+		this(requirementId, stateForName(stateName), summary, acceptanceTestId, priority, estimate, developer, rejectionForName(rejection));
+	}
+	
+	/**
+	 * Constructor for Requirement that restores a saved Requirement from its state and rejection reason as enum values.
+	 * Does not use or change the counter, and checks the fields in the same way as the constructor that takes names.
+	 * @param requirementId the Requirement's id number
+	 * @param value the StateValue of the Requirement's state
+	 * @param summary the Requirement's summary
+	 * @param acceptanceTestId the Requirement's acceptance test id
+	 * @param priority the Requirement's priority, 0 if it has none
+	 * @param estimate the Requirement's estimate, or null
+	 * @param developer the Requirement's developer, or null
+	 * @param rejection the Requirement's rejection reason, or null
+	 * @throws IllegalArgumentException if the id is negative or larger than MAX_ID, or a field is missing or invalid for the state
+	 */
+	public Requirement(int requirementId, StateValue value, String summary, String acceptanceTestId, int priority, String estimate, String developer, Rejection rejection) {
+		if (requirementId < 0 || requirementId > MAX_ID) {
+			throw new IllegalArgumentException("Invalid id");
+		}
+		if (summary == null || acceptanceTestId == null) {
+			throw new IllegalArgumentException("null summary or id");
+		}
+		if (value == null) {
+			throw new IllegalArgumentException("Invalid state");
+		}
+		boolean accepted = value != StateValue.SUBMITTED && value != StateValue.REJECTED;
+		if (accepted && (priority < 1 || priority > 3 || estimate == null || estimate.isEmpty())) {
+			throw new IllegalArgumentException("Invalid priority or estimate");
+		}
+		if (!accepted && priority != 0) {
+			throw new IllegalArgumentException("Invalid priority");
+		}
+		if (accepted && value != StateValue.ACCEPTED && (developer == null || developer.isEmpty())) {
+			throw new IllegalArgumentException("Invalid developer");
+		}
+		if (value == StateValue.REJECTED) {
+			this.reason = rejection;
+			if (this.reason == null) {
+				throw new IllegalArgumentException("Invalid rejection");
+			}
+		}
+		this.requirementId = requirementId;
+		this.state = STATES[value.ordinal()];
+		this.summary = summary;
+		this.acceptanceTestId = acceptanceTestId;
+		this.priority = priority;
+		this.estimate = accepted ? estimate : null;
+		this.estimateMinutes = EstimateParser.toMinutes(this.estimate);
+		this.developer = accepted ? developer : null;
+	}
+	
+	/**
+	 * Getter for the StateValue of the state with the given name.
+	 * @param name the state name
+	 * @return the StateValue, or null if no state has the name
+	 */
+	private static StateValue stateForName(String name) {
+		for (int i = 0; i < STATES.length; i++) {
+			if (STATES[i].getStateName().equals(name)) {
+				return STATES[i].getStateValue();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Getter for the Rejection with the given name.
+	 * Accepts both the rejection reason names, such as "Duplicate", and the Rejection constant names, such as "DUPLICATE".
+	 * @param name the rejection reason name
+	 * @return the Rejection, or null if no Rejection has the name
+	 */
+	private static Rejection rejectionForName(String name) {
+		Rejection[] reasons = Rejection.values();
+		for (int i = 0; i < reasons.length; i++) {
+			if (REJECTION_NAMES[i].equals(name) || reasons[i].name().equals(name)) {
+				return reasons[i];
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * Increments the counter.
 	 */
@@ -124,6 +266,15 @@ public class Requirement {
 		return this.requirementId;
 	}
 	
+	/**
+	 * Getter for this Requirement's version, which starts at 0 and goes up by one for every Command applied to it
+	 * and every setter call that changes a field.  It is not saved, so a loaded Requirement starts at 0 again.
+	 * @return the version
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+	
 	/**
 	 * Getter for the RequirementState object representing this Requirement's current state.
 	 * @return this Requirement's RequirementState object
@@ -133,29 +284,13 @@ public class Requirement {
 	}
 	
 	/**
-	 * Setter for this Requirement's state.
-	 * @param state the state to be set
+	 * Adds a valid transition to the transition table.
+	 * @param from the state the Command is issued in
+	 * @param c the CommandValue
+	 * @param to the state after the Command
 	 */
-	private void setState(String s) {
-
-		if (s.equals(ACCEPTED_NAME)) {
-			this.state = accepted;
-		}
-		if (s.equals(COMPLETED_NAME)) {
-			this.state = completed;
-		}
-		if (s.equals(REJECTED_NAME)) {
-			this.state = rejected;
-		}
-		if (s.equals(SUBMITTED_NAME)) {
-			this.state = submitted;
-		}
-		if (s.equals(VERIFIED_NAME)) {
-			this.state = verified;
-		}
-		if (s.equals(WORKING_NAME)) {
-			this.state = working;
-		}
+	private static void addTransition(RequirementState from, CommandValue c, RequirementState to) {
+		TRANSITIONS[from.getStateValue().ordinal()][c.ordinal()] = to;
 	}
 	
 	/**
@@ -174,6 +309,14 @@ public class Requirement {
 		return this.estimate;
 	}
 	
+	/**
+	 * Getter for this Requirement's estimate in minutes, parsed from the estimate when it was set.
+	 * @return the minutes, or EstimateParser.UNKNOWN if there is no estimate or it could not be parsed
+	 */
+	public int getEstimateMinutes() {
+		return estimateMinutes;
+	}
+	
 	/**
 	 * Getter for this Requirement's rejection reason as a Rejection object.
 	 * @return the Rejection object
@@ -191,16 +334,16 @@ public class Requirement {
 	}
 	
 	/**
-	 * Setter for this Requirement's rejection reason.
-	 * @param reason the rejection reason
+	 * Getter for this Requirement's rejection reason as the name used in requirements files, such as "Duplicate".
+	 * @return the rejection reason name, or null if there is no rejection reason
 	 */
-	private void setRejectionReason(String r) {
-/*		if(r == null) {
-			this.reason = NULL;
-		}*/
-		this.reason = Rejection.valueOf(r);
+	public String getRejectionReasonName() {
+		if (reason == null) {
+			return null;
+		}
+		return REJECTION_NAMES[reason.ordinal()];
 	}
-	
+
 	/**
 	 * Getter for this Requirement's developer
 	 * @return the developer
@@ -226,22 +369,107 @@ public class Requirement {
 	}
 	
 	/**
-	 * Setter for this Requirement's acceptance test id.
+	 * Setter for this Requirement's acceptance test id.  If the id changes, the listener is told and the version goes up.
 	 * @param id the acceptance test id
 	 */
 	public void setAcceptanceTestId(String id) throws IllegalArgumentException {
-		if (id == null) {
-			throw new IllegalArgumentException("null id");
+		if (replaceAcceptanceTestId(id, null)) {
+			version++;
 		}
-		this.acceptanceTestId = id;
 	}
 	
 	/**
-	 * Setter for this Requirement's developer
+	 * Setter for this Requirement's developer.  If the developer changes, the listener is told and the version goes up.
 	 * @param developer the developer
 	 */
 	public void setDeveloper(String developer) {
-		this.developer = developer;
+		if (replaceDeveloper(developer, null)) {
+			version++;
+		}
+	}
+	
+	/**
+	 * Sets the acceptance test id and tells the listener if it changed, without changing the version.
+	 * @param id the acceptance test id
+	 * @param c the Command that is changing it, or null if it is set directly
+	 * @return true if the acceptance test id changed
+	 * @throws IllegalArgumentException if the id is null
+	 */
+	private boolean replaceAcceptanceTestId(String id, Command c) {
+		if (id == null) {
+			throw new IllegalArgumentException("null id");
+		}
+		String oldId = this.acceptanceTestId;
+		this.acceptanceTestId = pooled(oldId, id);
+		if (id.equals(oldId)) {
+			return false;
+		}
+		if (listener != null) {
+			listener.acceptanceTestIdChanged(this, oldId, c);
+		}
+		return true;
+	}
+	
+	/**
+	 * Sets the developer and tells the listener if it changed, without changing the version.
+	 * @param developer the developer, or null for none
+	 * @param c the Command that is changing it, or null if it is set directly
+	 * @return true if the developer changed
+	 */
+	private boolean replaceDeveloper(String developer, Command c) {
+		String oldDeveloper = this.developer;
+		this.developer = pooled(oldDeveloper, developer);
+		if (developer == null ? oldDeveloper == null : developer.equals(oldDeveloper)) {
+			return false;
+		}
+		if (listener != null) {
+			listener.developerChanged(this, oldDeveloper, c);
+		}
+		return true;
+	}
+	
+	/**
+	 * Setter for the listener that is told about each transition of this Requirement.
+	 * @param listener the listener, or null to remove the current one
+	 */
+	public void setListener(RequirementListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Setter for the StringPool this Requirement shares its strings through, meant for the list that holds it.
+	 * The strings are given back to the old pool and replaced by the new pool's instances.
+	 * @param pool the pool, or null to stop sharing strings
+	 */
+	public void setStringPool(StringPool pool) {
+		if (this.pool != null) {
+			this.pool.release(summary);
+			this.pool.release(acceptanceTestId);
+			this.pool.release(estimate);
+			this.pool.release(developer);
+		}
+		this.pool = pool;
+		if (pool != null) {
+			summary = pool.intern(summary);
+			acceptanceTestId = pool.intern(acceptanceTestId);
+			estimate = pool.intern(estimate);
+			developer = pool.intern(developer);
+		}
+	}
+	
+	/**
+	 * Getter for the pooled instance of a new value of a string field, giving the old value back to the pool.
+	 * @param old the field's old value, may be null
+	 * @param s the new value, may be null
+	 * @return the value to store in the field
+	 */
+	private String pooled(String old, String s) {
+		if (pool == null) {
+			return s;
+		}
+		String result = pool.intern(s);
+		pool.release(old);
+		return result;
 	}
 	
 	/**
@@ -250,7 +478,54 @@ public class Requirement {
 	 * @throws UnsupportedOperationException if the Command is invalid for the state
 	 */
 	public void update(Command command) throws UnsupportedOperationException {
-		this.state.updateState(command);
+		this.state.updateState(this, command);
+	}
+	
+	/**
+	 * Updates this Requirement based on the specified command without throwing if the command is invalid.
+	 * @param command the command
+	 * @return APPLIED if the Requirement was updated, INVALID_TRANSITION if the Command is invalid for the state
+	 */
+	public CommandResult tryUpdate(Command command) {
+		if (this.state.tryUpdateState(this, command)) {
+			return CommandResult.APPLIED;
+		}
+		return CommandResult.INVALID_TRANSITION;
+	}
+	
+	/**
+	 * Applies the field changes for a Command that the transition table accepted.
+	 * The changes depend only on the CommandValue, not on the state the Command was issued in.
+	 * @param c the Command
+	 */
+	private void apply(Command c) {
+		switch (c.getCommand()) {
+		case ACCEPT:
+			this.priority = c.getPriority();
+			this.estimate = pooled(this.estimate, c.getEstimate());
+			this.estimateMinutes = EstimateParser.toMinutes(this.estimate);
+			break;
+		case ASSIGN:
+			replaceDeveloper(c.getDeveloperId(), c);
+			break;
+		case REJECT:
+			this.estimate = pooled(this.estimate, null);
+			this.estimateMinutes = EstimateParser.UNKNOWN;
+			this.priority = 0;
+			replaceDeveloper(null, c);
+			this.reason = c.getRejectionReason();
+			break;
+		case REVISE:
+			String oldSummary = this.summary;
+			this.summary = pooled(oldSummary, c.getSummary());
+			replaceAcceptanceTestId(c.getAcceptanceTestId(), c);
+			if (listener != null && !this.summary.equals(oldSummary)) {
+				listener.summaryChanged(this, oldSummary);
+			}
+			break;
+		default:
+			break;
+		}
 	}
 	
 	/**
@@ -295,266 +570,113 @@ public class Requirement {
 	}
 	
 	/**
-	 * Private inner (non-static) class representing the Accepted state.
-	 * Implements the RequirementState interface and contains behavior to update state when given a Command and get its state name..
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
+	 * Getter for the counter variable.
+	 * @return the id the next new Requirement will get
 	 */
-	private class AcceptedState implements RequirementState {
-
-		/**
-		 * Updates Accepted state based on the Command.  
-		 * @param c the Command
-		 * @throws UnsupportedOperationException if the Command is invalid for this state
-		 */
-		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REJECT && c.getCommand() != CommandValue.ASSIGN) {
-				throw new UnsupportedOperationException("UnsupportedOperationException");
-			}
-			if (c.getCommand() == CommandValue.ASSIGN) {
-				setDeveloper(c.getDeveloperId());
-				setState(WORKING_NAME);
-			}
-			if (c.getCommand() == CommandValue.REJECT) {
-				estimate = null;
-				priority = 0;
-				setDeveloper(null);
-				setRejectionReason(c.getRejectionReason().name());
-				setState(REJECTED_NAME);
-			}
-		}
-		
-		/**
-		 * Getter for the state name as a String.
-		 * @return the name
-		 */
-		@Override
-		public String getStateName() {
-			return ACCEPTED_NAME;
-		}
+	public static int getCounter() {
+		return counter;
 	}
 	
 	/**
-	 * Private inner (non-static) class representing the Completed state.
-	 * Implements the RequirementState interface and contains behavior to update state when given a Command and get its state name..
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
+	 * Getter for the shared state instance for a StateValue, the same instance getState returns for a Requirement in that state.
+	 * @param value the StateValue
+	 * @return the shared state
 	 */
-	private class CompletedState implements RequirementState {
-
-		/**
-		 * Updates Completed state based on the Command.  
-		 * @param c the Command
-		 * @throws UnsupportedOperationException if the Command is invalid for this state
-		 */
-		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REJECT && c.getCommand() != CommandValue.PASS && c.getCommand() != CommandValue.FAIL && c.getCommand() != CommandValue.ASSIGN) {
-				throw new UnsupportedOperationException("UnsupportedOperationException");
-			}
-			if (c.getCommand() == CommandValue.PASS) {
-				setState(VERIFIED_NAME);
-			}
-			if (c.getCommand() == CommandValue.FAIL) {
-				setState(WORKING_NAME);
-			}
-			if (c.getCommand() == CommandValue.ASSIGN) {
-				setDeveloper(c.getDeveloperId());
-				setState(WORKING_NAME);
-			}
-			if (c.getCommand() == CommandValue.REJECT) {
-				estimate = null;
-				priority = 0;
-				setDeveloper(null);
-				setRejectionReason(c.getRejectionReason().name());
-				setState(REJECTED_NAME);
-			}
-
-		}
-		
-		/**
-		 * Getter for the state name as a String.
-		 * @return the name
-		 */
-		@Override
-		public String getStateName() {
-			return COMPLETED_NAME;
-		}
+	public static RequirementState stateFor(StateValue value) {
+		return STATES[value.ordinal()];
 	}
 	
 	/**
-	 * Private inner (non-static) class representing the Rejected state.
-	 * Implements the RequirementState interface and contains behavior to update state when given a Command and get its state name..
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
+	 * Getter for the state a Command moves a Requirement to from the given state, looked up in the transition table
+	 * without changing any Requirement.
+	 * @param from the StateValue of the state the Command is issued in
+	 * @param c the CommandValue
+	 * @return the StateValue of the next state, or null if the Command is invalid for the state
 	 */
-	private class RejectedState implements RequirementState {
+	public static StateValue nextState(StateValue from, CommandValue c) {
+		RequirementState next = TRANSITIONS[from.ordinal()][c.ordinal()];
+		return next == null ? null : next.getStateValue();
+	}
+	
+	/**
+	 * Private static nested class representing one state of the FSM.
+	 * Implements the RequirementState interface by looking up the next state in the transition table.
+	 * The six states are shared instances of this class that differ only in their StateValue and name.
+	 */
+	private static class TableState implements RequirementState {
 
-		/**
-		 * Constructor for RejectedState.  
-		 */
-		private RejectedState() {
+		/** The StateValue of this state */
+		private final StateValue value;
 
-		}
+		/** The name of this state */
+		private final String name;
 
 		/**
-		 * Updates Rejected state based on the Command.  
-		 * @param c the Command
-		 * @throws UnsupportedOperationException if the Command is invalid for this state
-		 */
-		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REVISE) {
-				throw new UnsupportedOperationException("UnsupportedOperationException");
-			}
-			summary = c.getSummary();
-			setAcceptanceTestId(c.getAcceptanceTestId());
-			//setRejectionReason(null);
-			setState(SUBMITTED_NAME);
-		}
-		
-		/**
-		 * Getter for the state name as a String.
-		 * @return the name
+		 * Constructor for TableState.
+		 * @param value the StateValue of the state
+		 * @param name the name of the state
 		 */
-		@Override
-		public String getStateName() {
-			return REJECTED_NAME;
+		private TableState(StateValue value, String name) {
+			this.value = value;
+			this.name = name;
 		}
-	}
-	
-	/**
-	 * Private inner (non-static) class representing the Submitted state.
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
-	 */
-	private class SubmittedState implements RequirementState {
 
 		/**
-		 * Updates SubmittedState based on the Command.  
+		 * Updates the Requirement based on the Command.
+		 * @param r the Requirement to update
 		 * @param c the Command
-		 * @throws UnsupportedOperationException if the command is not Accept or Reject
+		 * @throws UnsupportedOperationException if the Command is invalid for this state
 		 */
 		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REJECT && c.getCommand() != CommandValue.ACCEPT) {
+		public void updateState(Requirement r, Command c) throws UnsupportedOperationException {
+			if (!tryUpdateState(r, c)) {
 				throw new UnsupportedOperationException("UnsupportedOperationException");
-			}					
-			if (c.getCommand() == CommandValue.ACCEPT) {
-				priority = c.getPriority();
-				estimate = c.getEstimate();
-				setState(ACCEPTED_NAME);
-			}
-			if (c.getCommand() == CommandValue.REJECT) {
-				estimate = null;
-				priority = 0;
-				setDeveloper(null);
-				setRejectionReason(c.getRejectionReason().name());
-				setState(REJECTED_NAME);
 			}
 		}
-		
-		/**
-		 * Getter for the state name as a String.
-		 * @return the name
-		 */
-		@Override
-		public String getStateName() {
-			return SUBMITTED_NAME;
-		}
-	}
-	
-	/**
-	 * Private inner (non-static) class representing the Verified state.
-	 * Implements the RequirementState interface and contains behavior to update state when given a Command and get its state name..
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
-	 */
-	private class VerifiedState implements RequirementState {
 
 		/**
-		 * Constructor for VerifiedState.  
-		 */
-		private VerifiedState() {
-
-		}
-
-		/**
-		 * Updates state based on the Command.  
+		 * Updates the Requirement based on the Command if the Command is valid for this state.
+		 * Since the states are shared, the Requirement must be in this state; a Requirement in another state is not updated.
+		 * @param r the Requirement to update
 		 * @param c the Command
-		 * @throws UnsupportedOperationException if the Command is invalid for this state
+		 * @return true if the Requirement was updated, false if the Command is invalid for this state
+		 * or the Requirement is not in this state
 		 */
 		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REJECT && c.getCommand() != CommandValue.ASSIGN) {
-				throw new UnsupportedOperationException("UnsupportedOperationException");
+		public boolean tryUpdateState(Requirement r, Command c) {
+			if (r.state != this) {
+				return false;
 			}
-			if (c.getCommand() == CommandValue.ASSIGN) {
-				setDeveloper(c.getDeveloperId());
-				setState(WORKING_NAME);
+			RequirementState next = TRANSITIONS[value.ordinal()][c.getCommand().ordinal()];
+			if (next == null) {
+				return false;
 			}
-			if (c.getCommand() == CommandValue.REJECT) {
-				estimate = null;
-				priority = 0;
-				setDeveloper(null);
-				setRejectionReason(c.getRejectionReason().name());
-				setState(REJECTED_NAME);
+			r.apply(c);
+			r.state = next;
+			r.version++;
+			if (r.listener != null) {
+				r.listener.stateChanged(r, this, c);
 			}
-
+			return true;
 		}
-		
+
 		/**
 		 * Getter for the state name as a String.
 		 * @return the name
 		 */
 		@Override
 		public String getStateName() {
-			return VERIFIED_NAME;
-		}
-	}
-	
-	/**
-	 * Private inner (non-static) class representing the Workng state.
-	 * Implements the RequirementState interface and contains behavior to update state when given a Command and get its state name..
-	 * If an UnsupportedOperationException is thrown, it should be passed all the way back to the GUI and 
-	 */
-	private class WorkingState implements RequirementState {
-
-		/**
-		 * Constructor for WorkingState.  
-		 */
-		private WorkingState() {
-
+			return name;
 		}
 
 		/**
-		 * Updates state based on the Command.  
-		 * @param c the Command
-		 * @throws UnsupportedOperationException if the Command is invalid for this state
+		 * Getter for the StateValue of this state.
+		 * @return the StateValue
 		 */
 		@Override
-		public void updateState(Command c) throws UnsupportedOperationException {
-			if (c.getCommand() != CommandValue.REJECT && c.getCommand() != CommandValue.COMPLETE) {
-				throw new UnsupportedOperationException("UnsupportedOperationException");
-			}
-			if (c.getCommand() == CommandValue.COMPLETE) {
-				setState(COMPLETED_NAME);
-			}
-			if (c.getCommand() == CommandValue.REJECT) {
-				estimate = null;
-				priority = 0;
-				setDeveloper(null);
-				setRejectionReason(c.getRejectionReason().name());
-				setState(REJECTED_NAME);
-			}
-
-		}
-		
-		/**
-		 * Getter for the state name as a String.
-		 * @return the name
-		 */
-		@Override
-		public String getStateName() {
-			return WORKING_NAME;
+		public StateValue getStateValue() {
+			return value;
 		}
 	}
 	
 }
-
@@ -0,0 +1,50 @@
+package edu.ncsu.csc216.tracker.requirement;
+
+/**
+ * Interface for objects that keep track of changes to a {@link Requirement}, such as the
+ * indexes of the list that owns it.  A {@link Requirement} has at most one listener, set
+ * with {@link Requirement#setListener(RequirementListener)}.
+ * 
+ * @author mlee25 Michael Lee
+ */
+public interface RequirementListener {
+
+	/**
+	 * Called after a {@link Command} has moved the {@link Requirement} to a new state.
+	 * @param r the {@link Requirement} that changed
+	 * @param from the state the {@link Requirement} was in before the {@link Command}
+	 * @param c the {@link Command} that was applied
+	 */
+	void stateChanged(Requirement r, RequirementState from, Command c);
+
+	/**
+	 * Called when a {@link Command} has given the {@link Requirement} a different summary,
+	 * before {@link #stateChanged(Requirement, RequirementState, Command)} is called for the same {@link Command}.
+	 * @param r the {@link Requirement} that changed
+	 * @param oldSummary the summary before the {@link Command}
+	 */
+	void summaryChanged(Requirement r, String oldSummary);
+
+	/**
+	 * Called after the {@link Requirement} has been given a different acceptance test id,
+	 * either by {@link Requirement#setAcceptanceTestId(String)} or by a {@link Command} that revises it.
+	 * For a {@link Command} this comes before {@link #stateChanged(Requirement, RequirementState, Command)}, while the
+	 * {@link Requirement} is still in its old state.
+	 * @param r the {@link Requirement} that changed
+	 * @param oldId the acceptance test id before the change
+	 * @param c the {@link Command} that changed it, or null if it was set directly
+	 */
+	void acceptanceTestIdChanged(Requirement r, String oldId, Command c);
+
+	/**
+	 * Called after the {@link Requirement} has been given a different developer,
+	 * either by {@link Requirement#setDeveloper(String)} or by a {@link Command} that assigns or rejects it.
+	 * For a {@link Command} this comes before {@link #stateChanged(Requirement, RequirementState, Command)}, while the
+	 * {@link Requirement} is still in its old state.
+	 * @param r the {@link Requirement} that changed
+	 * @param oldDeveloper the developer before the change, or null if it had none
+	 * @param c the {@link Command} that changed it, or null if it was set directly
+	 */
+	void developerChanged(Requirement r, String oldDeveloper, Command c);
+
+}
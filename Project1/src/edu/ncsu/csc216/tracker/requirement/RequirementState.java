@@ -1,5 +1,6 @@
 package edu.ncsu.csc216.tracker.requirement;
 
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 
 /**
  * Interface for states in the Requirement State Pattern.  All 
@@ -13,17 +14,36 @@ public interface RequirementState {
 	 * Update the {@link Requirement} based on the given {@link Command}.
 	 * An {@link UnsupportedOperationException} is throw if the {@link CommandValue}
 	 * is not a valid action for the given state.  
+	 * States are shared by all Requirements, so the Requirement to update is passed in.
+	 * @param r {@link Requirement} in this state that the action will update.
 	 * @param c {@link Command} describing the action that will update the {@link Requirement}'s
 	 * state.
 	 * @throws UnsupportedOperationException if the {@link CommandValue} is not a valid action
 	 * for the given state.
 	 */
-	void updateState(Command c);
+	void updateState(Requirement r, Command c);
+	
+	/**
+	 * Update the {@link Requirement} based on the given {@link Command} if the {@link CommandValue}
+	 * is a valid action for the given state.  Nothing is changed and no exception is thrown otherwise.
+	 * @param r {@link Requirement} in this state that the action will update.
+	 * @param c {@link Command} describing the action that will update the {@link Requirement}'s
+	 * state.
+	 * @return true if the {@link Requirement} was updated, false if the {@link CommandValue} is not
+	 * a valid action for the given state or the {@link Requirement} is not in this state.
+	 */
+	boolean tryUpdateState(Requirement r, Command c);
 	
 	/**
 	 * Returns the name of the current state as a String.
 	 * @return the name of the current state as a String.
 	 */
 	String getStateName();
+	
+	/**
+	 * Returns the {@link StateValue} of the current state.
+	 * @return the {@link StateValue} of the current state.
+	 */
+	StateValue getStateValue();
 
 }
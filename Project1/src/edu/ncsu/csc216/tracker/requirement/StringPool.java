@@ -0,0 +1,191 @@
+package edu.ncsu.csc216.tracker.requirement;
+
+/**
+ * StringPool class keeps one shared instance of each summary, acceptance test id, estimate and developer string,
+ * so Requirements that repeat the same text do not each hold their own copy.
+ * Each RequirementsList owns its own pool and only changes it while it changes the list, so the pool needs no lock of its own.
+ * Strings are kept in an open addressing table using their cached hash codes, with a count of the Requirement fields
+ * that hold each one; a string is dropped as soon as no field holds it, so deleted and revised text is not kept.
+ * The pool also counts the bytes saved by handing out a shared instance instead of keeping a duplicate,
+ * estimated for a 64-bit JVM with compressed references and compact strings.
+ * @author mlee25 Michael Lee
+ */
+public class StringPool {
+
+	/** Number of slots in an empty pool */
+	private static final int DEFAULT_CAPACITY = 256;
+
+	/** Pooled strings, null for empty slots */
+	private String[] table;
+
+	/** Number of fields holding the string in each slot */
+	private int[] counts;
+
+	/** Number of pooled strings */
+	private int size;
+
+	/** Number of calls to intern that returned a string that was already pooled */
+	private long hits;
+
+	/** Estimated number of bytes of duplicate strings that were not kept */
+	private long bytesSaved;
+
+	/**
+	 * Constructor for an empty StringPool.
+	 */
+	public StringPool() {
+		table = new String[DEFAULT_CAPACITY];
+		counts = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Getter for the pooled instance equal to a string, adding the string if there is none.
+	 * Each call holds the string once more until a matching call to release.
+	 * @param s the string, may be null
+	 * @return the pooled instance, or null if s is null
+	 */
+	public String intern(String s) {
+		if (s == null) {
+			return null;
+		}
+		int i = find(s);
+		String pooled = table[i];
+		if (pooled != null) {
+			if (pooled != s) {
+				hits++;
+				bytesSaved += sizeOf(s);
+			}
+			counts[i]++;
+			return pooled;
+		}
+		table[i] = s;
+		counts[i] = 1;
+		if (++size > table.length / 2) {
+			grow();
+		}
+		return s;
+	}
+
+	/**
+	 * Lets go of a string returned by intern, dropping it from the pool once nothing holds it.
+	 * @param s the string, may be null
+	 */
+	public void release(String s) {
+		if (s == null) {
+			return;
+		}
+		int i = find(s);
+		if (table[i] != null && --counts[i] == 0) {
+			removeAt(i);
+			size--;
+		}
+	}
+
+	/**
+	 * Getter for the number of pooled strings.
+	 * @return the number of pooled strings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter for the number of duplicate strings replaced by a pooled instance.
+	 * @return the number of duplicates
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Getter for the estimated number of bytes saved by not keeping duplicates.
+	 * @return the estimated bytes saved
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	/**
+	 * Getter for a one line report of the pool for logs.
+	 * @return the report
+	 */
+	public String getReport() {
+		return "StringPool: " + size + " strings, " + hits + " duplicates, about " + bytesSaved + " bytes saved";
+	}
+
+	/**
+	 * Getter for the estimated size of a string and its byte array: a 24 byte String, a 16 byte array header,
+	 * and one byte per char, or two if any char is not Latin-1, rounded up to 8 bytes.
+	 * @param s the string
+	 * @return the estimated size in bytes
+	 */
+	private static long sizeOf(String s) {
+		int bytesPerChar = 1;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) > 0xFF) {
+				bytesPerChar = 2;
+				break;
+			}
+		}
+		return 24 + ((16 + (long) s.length() * bytesPerChar + 7) & ~7L);
+	}
+
+	/**
+	 * Mixes the high bits of a hash code into the low bits used for the slot.
+	 * @param h the hash code
+	 * @return the mixed hash
+	 */
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Getter for the slot that holds a string equal to s, or the empty slot where it would go.
+	 * @param s the string
+	 * @return the slot
+	 */
+	private int find(String s) {
+		int mask = table.length - 1;
+		int i = spread(s.hashCode()) & mask;
+		while (table[i] != null && !table[i].equals(s)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Empties a slot, moving later strings of the same probe run back so that every string can still be found.
+	 * @param i the slot
+	 */
+	private void removeAt(int i) {
+		int mask = table.length - 1;
+		table[i] = null;
+		for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+			int home = spread(table[j].hashCode()) & mask;
+			boolean reachable = i < j ? home > i && home <= j : home > i || home <= j;
+			if (!reachable) {
+				table[i] = table[j];
+				counts[i] = counts[j];
+				table[j] = null;
+				i = j;
+			}
+		}
+	}
+
+	/**
+	 * Doubles the table and moves every pooled string to it.
+	 */
+	private void grow() {
+		String[] oldTable = table;
+		int[] oldCounts = counts;
+		table = new String[oldTable.length * 2];
+		counts = new int[oldCounts.length * 2];
+		for (int j = 0; j < oldTable.length; j++) {
+			if (oldTable[j] != null) {
+				int i = find(oldTable[j]);
+				table[i] = oldTable[j];
+				counts[i] = oldCounts[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.tracker.requirement.enums;
+
+/**
+ * Enumeration that names the possible results of issuing a command without throwing an exception.
+ * @author mlee25 Michael Lee
+ */
+public enum CommandResult {
+
+	/** Command was valid for the state and the requirement was updated */
+	APPLIED,
+
+	/** Command is not a valid action for the requirement's state, the requirement is unchanged */
+	INVALID_TRANSITION,
+
+	/** No requirement has the given id */
+	NOT_FOUND,
+
+	/** Command was valid but was not applied because another command in the same all-or-nothing batch was not */
+	SKIPPED,
+
+	/** Requirement has changed since the version the command expected, the requirement is unchanged */
+	CONFLICT
+}
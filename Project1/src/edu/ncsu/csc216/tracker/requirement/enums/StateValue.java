@@ -0,0 +1,29 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.tracker.requirement.enums;
+
+/**
+ * Enumeration that names the states of the internal FSM for a requirement.
+ * @author mlee25 Michael Lee
+ */
+public enum StateValue {
+
+	/** Submitted requirement: initial state */
+	SUBMITTED,
+
+	/** Accepted requirement: has a priority and an estimate */
+	ACCEPTED,
+
+	/** Rejected requirement: has a rejection reason */
+	REJECTED,
+
+	/** Working requirement: assigned to a developer */
+	WORKING,
+
+	/** Completed requirement: waiting on the acceptance test */
+	COMPLETED,
+
+	/** Verified requirement: acceptance test passed */
+	VERIFIED
+}
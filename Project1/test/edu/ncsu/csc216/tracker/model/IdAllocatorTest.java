@@ -0,0 +1,138 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.tracker.model;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+/**
+ * Test class for IdAllocator class
+ * @author mlee25 Michael Lee
+ */
+public class IdAllocatorTest {
+
+	/**
+	 * Test method for next and peek
+	 */
+	@Test
+	public void testNext() {
+		IdAllocator ids = new IdAllocator();
+		assertEquals(0, ids.peek());
+		assertEquals(0, ids.next());
+		assertEquals(1, ids.next());
+		assertEquals(2, ids.peek());
+	}
+
+	/**
+	 * Test method for reserve
+	 */
+	@Test
+	public void testReserve() {
+		IdAllocator ids = new IdAllocator();
+		assertEquals(0, ids.reserve(100));
+		assertEquals(100, ids.next());
+		assertEquals(101, ids.reserve(0));
+		assertEquals(101, ids.peek());
+		try {
+			ids.reserve(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid count", e.getMessage());
+		}
+		ids.advancePast(Integer.MAX_VALUE - 2);
+		try {
+			ids.reserve(3);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(Integer.MAX_VALUE - 1, ids.peek());
+		}
+		assertEquals(Integer.MAX_VALUE - 1, ids.reserve(1));
+	}
+
+	/**
+	 * Test method for reserve with a largest id
+	 */
+	@Test
+	public void testReserveLimit() {
+		IdAllocator ids = new IdAllocator(9);
+		assertEquals(0, ids.reserve(8));
+		try {
+			ids.reserve(3);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(8, ids.peek());
+		}
+		assertEquals(8, ids.reserve(2));
+		try {
+			ids.next();
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(10, ids.peek());
+		}
+		try {
+			new IdAllocator(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid limit", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for advancePast
+	 */
+	@Test
+	public void testAdvancePast() {
+		IdAllocator ids = new IdAllocator();
+		ids.advancePast(-1);
+		assertEquals(0, ids.peek());
+		ids.advancePast(9);
+		assertEquals(10, ids.next());
+		ids.advancePast(5);
+		assertEquals(11, ids.next());
+		try {
+			ids.advancePast(Integer.MAX_VALUE);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(12, ids.peek());
+		}
+	}
+
+	/**
+	 * Test method for many threads taking ids and blocks of ids at once, which must never get the same id
+	 */
+	@Test
+	public void testConcurrentReserve() throws InterruptedException {
+		final IdAllocator ids = new IdAllocator();
+		final int perThread = 20000;
+		final AtomicIntegerArray taken = new AtomicIntegerArray(8 * perThread);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final boolean blocks = t % 2 == 0;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < perThread; i += blocks ? 4 : 1) {
+						int first = blocks ? ids.reserve(4) : ids.next();
+						for (int id = first; id < first + (blocks ? 4 : 1); id++) {
+							taken.incrementAndGet(id);
+						}
+					}
+				}
+			};
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].join();
+		}
+		assertEquals(taken.length(), ids.peek());
+		for (int id = 0; id < taken.length(); id++) {
+			assertEquals(1, taken.get(id));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.tracker.model;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.tracker.requirement.Requirement;
+
+/**
+ * Test class for IntRequirementMap class
+ * @author mlee25 Michael Lee
+ */
+public class IntRequirementMapTest {
+
+	/**
+	 * Test method for IntRequirementMap constructor
+	 */
+	@Test
+	public void testIntRequirementMap() {
+		IntRequirementMap map = new IntRequirementMap();
+		assertEquals(0, map.size());
+		assertNull(map.get(0));
+		map = new IntRequirementMap(1000);
+		assertEquals(0, map.size());
+		try {
+			map = new IntRequirementMap(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(0, map.size());
+		}
+	}
+
+	/**
+	 * Test method for put and get
+	 */
+	@Test
+	public void testPutGet() {
+		IntRequirementMap map = new IntRequirementMap();
+		Requirement r1 = new Requirement("summary", "acceptanceTestId");
+		Requirement r2 = new Requirement("summary2", "acceptanceTestId2");
+		assertNull(map.put(1, r1));
+		assertNull(map.put(-5, r2));
+		assertSame(r1, map.get(1));
+		assertSame(r2, map.get(-5));
+		assertTrue(map.containsKey(1));
+		assertFalse(map.containsKey(2));
+		//Test replace
+		assertSame(r1, map.put(1, r2));
+		assertSame(r2, map.get(1));
+		assertEquals(2, map.size());
+		//Test null value
+		try {
+			map.put(3, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(2, map.size());
+		}
+	}
+
+	/**
+	 * Test method for remove
+	 */
+	@Test
+	public void testRemove() {
+		IntRequirementMap map = new IntRequirementMap();
+		Requirement r = new Requirement("summary", "acceptanceTestId");
+		map.put(7, r);
+		assertNull(map.remove(8));
+		assertSame(r, map.remove(7));
+		assertNull(map.get(7));
+		assertEquals(0, map.size());
+		map.put(7, r);
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(7));
+	}
+
+	/**
+	 * Test method for a mix of puts and removes checked against a HashMap, including growing the table
+	 */
+	@Test
+	public void testAgainstHashMap() {
+		IntRequirementMap map = new IntRequirementMap();
+		HashMap<Integer, Requirement> expected = new HashMap<Integer, Requirement>();
+		Requirement[] reqs = new Requirement[8];
+		for (int i = 0; i < reqs.length; i++) {
+			reqs[i] = new Requirement("summary" + i, "acceptanceTestId" + i);
+		}
+		Random random = new Random(216);
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(2000);
+			if (random.nextInt(3) == 0) {
+				assertSame(expected.remove(key), map.remove(key));
+			} else {
+				Requirement r = reqs[random.nextInt(reqs.length)];
+				assertSame(expected.put(key, r), map.put(key, r));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		for (int key = 0; key < 2000; key++) {
+			assertSame(expected.get(key), map.get(key));
+		}
+	}
+
+	/**
+	 * Test method for values, including after the table grows and shrinks
+	 */
+	@Test
+	public void testValues() {
+		IntRequirementMap map = new IntRequirementMap();
+		Requirement r = new Requirement("summary", "acceptanceTestId");
+		assertEquals(0, map.values().length);
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, r);
+		}
+		assertEquals(1000, map.values().length);
+		for (int i = 0; i < 998; i++) {
+			map.remove(i);
+		}
+		Requirement[] values = map.values();
+		assertEquals(2, values.length);
+		assertSame(r, values[0]);
+		assertSame(r, map.get(998));
+		assertSame(r, map.get(999));
+	}
+
+	/**
+	 * Test method for ensureCapacity
+	 */
+	@Test
+	public void testEnsureCapacity() {
+		IntRequirementMap map = new IntRequirementMap();
+		Requirement r = new Requirement("summary", "acceptanceTestId");
+		map.put(3, r);
+		map.ensureCapacity(5000);
+		map.ensureCapacity(10);
+		assertSame(r, map.get(3));
+		for (int i = 0; i < 5000; i++) {
+			map.put(i, r);
+		}
+		assertEquals(5000, map.size());
+		assertSame(r, map.get(4999));
+	}
+
+}
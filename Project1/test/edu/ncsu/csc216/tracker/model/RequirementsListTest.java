@@ -5,15 +5,20 @@ package edu.ncsu.csc216.tracker.model;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.tracker.requirement.Command;
 import edu.ncsu.csc216.tracker.requirement.Requirement;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
 import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
 import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 import edu.ncsu.csc216.tracker.xml.Req;
 
 /**
@@ -82,6 +87,29 @@ public class RequirementsListTest {
 		reqlist = new RequirementsList();
 		reqlist.addXMLReqs(xmlReqs);
 		assertEquals(2, reqlist.getRequirements().size());
+		//Test next add does not reuse an id
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		assertEquals(3, reqlist.getRequirements().size());
+		assertEquals("summary3", reqlist.getRequirementById(id3).getSummary());
+		assertEquals("summary", reqlist.getRequirements().get(0).getSummary());
+		assertEquals("summary2", reqlist.getRequirements().get(1).getSummary());
+	}
+
+	/**
+	 * Test method for addXMLReqs with a RequirementsXMLReader and an id larger than Requirement.MAX_ID
+	 */
+	@Test
+	public void testAddXMLReqsInvalidId() {
+		RequirementsList reqlist = new RequirementsList();
+		String xml = "<Reqs><Req><id>0</id><state>Submitted</state><summary>summary</summary><test>test</test><priority>0</priority></Req>"
+				+ "<Req><id>2147483000</id><state>Submitted</state><summary>summary</summary><test>test</test><priority>0</priority></Req></Reqs>";
+		try {
+			reqlist.addXMLReqs(new RequirementsXMLReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid id", e.getMessage());
+		}
+		assertEquals(1, reqlist.getRequirements().size());
 	}
 
 	/**
@@ -149,7 +177,522 @@ public class RequirementsListTest {
 		assertEquals(1, reqlist.getRequirements().size());
 		Requirement r = reqlist.getRequirementById(id2);
 		assertEquals("summary2", r.getSummary());
-		assertEquals("acceptanceTestId2", r.getAcceptanceTestId());		
+		assertEquals("acceptanceTestId2", r.getAcceptanceTestId());
+		assertNull(reqlist.getRequirementById(id1));
+		//Delete id that is not in the list
+		reqlist.deleteRequirementById(id1);
+		assertEquals(1, reqlist.getRequirements().size());
+		//Order is kept after deletes
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		reqlist.deleteRequirementById(id2);
+		int id4 = reqlist.addRequirement("summary4", "acceptanceTestId4");
+		assertEquals(2, reqlist.getRequirements().size());
+		assertEquals(id3, reqlist.getRequirements().get(0).getRequirementId());
+		assertEquals(id4, reqlist.getRequirements().get(1).getRequirementId());
+	}
+
+	/**
+	 * Test method for tryExecuteCommand
+	 */
+	@Test
+	public void testTryExecuteCommand() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary", "acceptanceTestId");
+		Command c = new Command(CommandValue.PASS, null, null, 0, null, null, null);
+		assertEquals(CommandResult.INVALID_TRANSITION, reqlist.tryExecuteCommand(id1, c));
+		assertEquals("Submitted", reqlist.getRequirementById(id1).getState().getStateName());
+		assertEquals(CommandResult.NOT_FOUND, reqlist.tryExecuteCommand(id1 + 1, c));
+		c = new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.INFEASIBLE);
+		assertEquals(CommandResult.APPLIED, reqlist.tryExecuteCommand(id1, c));
+		assertEquals("Rejected", reqlist.getRequirementById(id1).getState().getStateName());
+		//Test executeCommand still throws for an invalid command
+		try {
+			reqlist.executeCommand(id1, c);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(Rejection.INFEASIBLE, reqlist.getRequirementById(id1).getRejectionReason());
+		}
+	}
+
+	/**
+	 * Test method for getStateCount and getRequirementsByState
+	 */
+	@Test
+	public void testGetStateCount() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary", "acceptanceTestId");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		assertEquals(3, reqlist.getStateCount(StateValue.SUBMITTED));
+		assertEquals(0, reqlist.getStateCount(StateValue.ACCEPTED));
+		//Test command through the list
+		reqlist.executeCommand(id1, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		assertEquals(2, reqlist.getStateCount(StateValue.SUBMITTED));
+		assertEquals(1, reqlist.getStateCount(StateValue.ACCEPTED));
+		assertEquals(id1, reqlist.getRequirementsByState(StateValue.ACCEPTED).get(0).getRequirementId());
+		//Test command issued directly to the requirement
+		reqlist.getRequirementById(id2).update(new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.TOO_LARGE));
+		assertEquals(1, reqlist.getStateCount(StateValue.SUBMITTED));
+		assertEquals(1, reqlist.getStateCount(StateValue.REJECTED));
+		//Test invalid command does not move the requirement
+		assertEquals(CommandResult.INVALID_TRANSITION, reqlist.tryExecuteCommand(id3, new Command(CommandValue.PASS, null, null, 0, null, null, null)));
+		assertEquals(1, reqlist.getStateCount(StateValue.SUBMITTED));
+		//Test delete
+		Requirement r = reqlist.getRequirementById(id1);
+		reqlist.deleteRequirementById(id1);
+		assertEquals(0, reqlist.getStateCount(StateValue.ACCEPTED));
+		assertEquals(0, reqlist.getRequirementsByState(StateValue.ACCEPTED).size());
+		//Test deleted requirement no longer changes the counts
+		r.update(new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null));
+		assertEquals(0, reqlist.getStateCount(StateValue.WORKING));
+	}
+
+	/**
+	 * Test method for hasChanges, getChangeCount and clearChanges
+	 */
+	@Test
+	public void testChanges() {
+		RequirementsList reqlist = new RequirementsList();
+		assertFalse(reqlist.hasChanges());
+		int id1 = reqlist.addRequirement("summary", "acceptanceTestId");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		reqlist.addRequirement("summary3", "acceptanceTestId3");
+		assertTrue(reqlist.hasChanges());
+		assertEquals(3, reqlist.getChangeCount());
+		reqlist.clearChanges();
+		assertFalse(reqlist.hasChanges());
+		//Test invalid command is not a change
+		reqlist.tryExecuteCommand(id1, new Command(CommandValue.PASS, null, null, 0, null, null, null));
+		assertFalse(reqlist.hasChanges());
+		//Test command issued directly to the requirement and delete
+		reqlist.getRequirementById(id1).update(new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		reqlist.deleteRequirementById(id2);
+		reqlist.deleteRequirementById(id2);
+		assertEquals(2, reqlist.getChangeCount());
+	}
+
+	/**
+	 * Test method for getTotalEstimate, getTotalEstimateByPriority and getTotalEstimateByDeveloper
+	 */
+	@Test
+	public void testGetTotalEstimate() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary", "acceptanceTestId");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		assertEquals(0, reqlist.getTotalEstimate(StateValue.SUBMITTED));
+		reqlist.executeCommand(id1, new Command(CommandValue.ACCEPT, null, null, 1, "1 hour", null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ACCEPT, null, null, 1, "2 days", null, null));
+		reqlist.executeCommand(id3, new Command(CommandValue.ACCEPT, null, null, 2, "a while", null, null));
+		assertEquals(60 + 960, reqlist.getTotalEstimate(StateValue.ACCEPTED));
+		assertEquals(60 + 960, reqlist.getTotalEstimateByPriority(1));
+		assertEquals(0, reqlist.getTotalEstimateByPriority(2));
+		assertEquals(0, reqlist.getTotalEstimateByPriority(7));
+		//Test assign moves the estimate to the developer and state
+		reqlist.executeCommand(id2, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null));
+		assertEquals(60, reqlist.getTotalEstimate(StateValue.ACCEPTED));
+		assertEquals(960, reqlist.getTotalEstimate(StateValue.WORKING));
+		assertEquals(960, reqlist.getTotalEstimateByDeveloper("developer"));
+		//Test reassign from completed takes it away from the old developer
+		reqlist.executeCommand(id2, new Command(CommandValue.COMPLETE, null, null, 0, null, null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer2", null));
+		assertEquals(0, reqlist.getTotalEstimateByDeveloper("developer"));
+		assertEquals(960, reqlist.getTotalEstimateByDeveloper("developer2"));
+		//Test setDeveloper moves the estimate and records an update
+		reqlist.recordEvents(true);
+		reqlist.getRequirementById(id2).setDeveloper("developer3");
+		assertEquals(0, reqlist.getTotalEstimateByDeveloper("developer2"));
+		assertEquals(960, reqlist.getTotalEstimateByDeveloper("developer3"));
+		assertEquals("[UPDATED " + id2 + " WORKING->WORKING]", reqlist.takeEvents().toString());
+		reqlist.getRequirementById(id2).setDeveloper("developer2");
+		//Test reject and delete take the estimate out, and a Command that changes the developer is only a transition
+		reqlist.takeEvents();
+		reqlist.executeCommand(id2, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.INFEASIBLE));
+		assertEquals("[TRANSITIONED " + id2 + " WORKING->REJECTED (REJECT)]", reqlist.takeEvents().toString());
+		reqlist.recordEvents(false);
+		assertEquals(0, reqlist.getTotalEstimate(StateValue.WORKING));
+		assertEquals(0, reqlist.getTotalEstimateByDeveloper("developer2"));
+		reqlist.deleteRequirementById(id1);
+		assertEquals(0, reqlist.getTotalEstimate(StateValue.ACCEPTED));
+		assertEquals(0, reqlist.getTotalEstimateByPriority(1));
+		//Test totals stay right as many sparse requirementIds are counted and taken out
+		Command accept = new Command(CommandValue.ACCEPT, null, null, 3, "1 hour", null, null);
+		for (int i = 0; i < 200; i++) {
+			reqlist.addRequirement(Requirement.MAX_ID - 200 * 1000 + i * 1000, "summary", "acceptanceTestId");
+			reqlist.executeCommand(Requirement.MAX_ID - 200 * 1000 + i * 1000, accept);
+		}
+		for (int i = 0; i < 200; i += 2) {
+			reqlist.deleteRequirementById(Requirement.MAX_ID - 200 * 1000 + i * 1000);
+		}
+		assertEquals(100 * 60, reqlist.getTotalEstimate(StateValue.ACCEPTED));
+		for (int i = 1; i < 200; i += 2) {
+			reqlist.deleteRequirementById(Requirement.MAX_ID - 200 * 1000 + i * 1000);
+		}
+		assertEquals(0, reqlist.getTotalEstimateByPriority(3));
+	}
+
+	/**
+	 * Test method for searchSummaries
+	 */
+	@Test
+	public void testSearchSummaries() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("Export the report as PDF", "acceptanceTestId");
+		int id2 = reqlist.addRequirement("Print the report", "acceptanceTestId2");
+		int id3 = reqlist.addRequirement("Export users, export groups", "acceptanceTestId3");
+		assertArrayEquals(new int[] {id1, id3}, reqlist.searchSummaries("export", true));
+		assertArrayEquals(new int[] {id1}, reqlist.searchSummaries("REPORT export", true));
+		assertArrayEquals(new int[] {id1, id2, id3}, reqlist.searchSummaries("report, groups", false));
+		assertArrayEquals(new int[0], reqlist.searchSummaries("report missing", true));
+		assertArrayEquals(new int[0], reqlist.searchSummaries("  ", true));
+		//Test revise moves the requirement to the words of its new summary
+		reqlist.executeCommand(id2, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		reqlist.executeCommand(id2, new Command(CommandValue.REVISE, "Export the chart", "acceptanceTestId2", 0, null, null, null));
+		assertArrayEquals(new int[] {id1}, reqlist.searchSummaries("report", false));
+		assertArrayEquals(new int[] {id1, id2, id3}, reqlist.searchSummaries("export", true));
+		//Test delete
+		reqlist.deleteRequirementById(id1);
+		assertArrayEquals(new int[0], reqlist.searchSummaries("report", false));
+		assertArrayEquals(new int[] {id2, id3}, reqlist.searchSummaries("export", true));
+		//Test many postings against one short list
+		for (int i = 0; i < 100; i++) {
+			reqlist.addRequirement("Export item " + i, "acceptanceTestId");
+		}
+		assertArrayEquals(new int[] {id3}, reqlist.searchSummaries("groups export", true));
+		assertEquals(102, reqlist.searchSummaries("export", true).length);
+	}
+
+	/**
+	 * Test searchAcceptanceTestIds
+	 */
+	@Test
+	public void testSearchAcceptanceTestIds() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary1", "LoginTest");
+		int id2 = reqlist.addRequirement("summary2", "LogoutTest");
+		int id3 = reqlist.addRequirement("summary3", "ExportTest");
+		assertArrayEquals(new int[] {id1, id2}, reqlist.searchAcceptanceTestIds("Log"));
+		assertArrayEquals(new int[] {id2}, reqlist.searchAcceptanceTestIds("outTe"));
+		assertArrayEquals(new int[] {id1, id2, id3}, reqlist.searchAcceptanceTestIds("Test"));
+		assertArrayEquals(new int[] {id1, id2, id3}, reqlist.searchAcceptanceTestIds("t"));
+		assertArrayEquals(new int[0], reqlist.searchAcceptanceTestIds("test"));
+		//Test every trigram present but not the substring
+		assertArrayEquals(new int[0], reqlist.searchAcceptanceTestIds("LogExp"));
+		//Test setAcceptanceTestId and revise keep the index up to date
+		reqlist.getRequirementById(id1).setAcceptanceTestId("ImportTest");
+		assertArrayEquals(new int[] {id2}, reqlist.searchAcceptanceTestIds("Log"));
+		assertArrayEquals(new int[] {id1, id3}, reqlist.searchAcceptanceTestIds("portTest"));
+		reqlist.executeCommand(id3, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		reqlist.executeCommand(id3, new Command(CommandValue.REVISE, "summary3", "LoginTest", 0, null, null, null));
+		assertArrayEquals(new int[] {id1}, reqlist.searchAcceptanceTestIds("portTest"));
+		assertArrayEquals(new int[] {id2, id3}, reqlist.searchAcceptanceTestIds("Log"));
+		//Test delete
+		reqlist.deleteRequirementById(id2);
+		assertArrayEquals(new int[] {id3}, reqlist.searchAcceptanceTestIds("Log"));
+	}
+
+	/**
+	 * Test getRequirementsByDeveloper and getDeveloperCount
+	 */
+	@Test
+	public void testGetRequirementsByDeveloper() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary1", "acceptanceTestId1");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		for (int id = id1; id <= id3; id++) {
+			reqlist.executeCommand(id, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		}
+		assertEquals(0, reqlist.getRequirementsByDeveloper("developer").size());
+		reqlist.executeCommand(id3, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null));
+		reqlist.executeCommand(id1, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer2", null));
+		ArrayList<Requirement> list = reqlist.getRequirementsByDeveloper("developer");
+		assertEquals(2, list.size());
+		assertEquals(id1, list.get(0).getRequirementId());
+		assertEquals(id3, list.get(1).getRequirementId());
+		assertEquals(1, reqlist.getDeveloperCount("developer2"));
+		//Test reassign moves the requirement to the new developer
+		reqlist.executeCommand(id1, new Command(CommandValue.COMPLETE, null, null, 0, null, null, null));
+		reqlist.executeCommand(id1, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer2", null));
+		assertEquals(1, reqlist.getDeveloperCount("developer"));
+		assertEquals(2, reqlist.getDeveloperCount("developer2"));
+		//Test reject clears the developer
+		reqlist.executeCommand(id3, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.INFEASIBLE));
+		assertEquals(0, reqlist.getDeveloperCount("developer"));
+		//Test setDeveloper and delete
+		reqlist.getRequirementById(id2).setDeveloper("developer");
+		assertEquals(id2, reqlist.getRequirementsByDeveloper("developer").get(0).getRequirementId());
+		reqlist.deleteRequirementById(id2);
+		assertEquals(0, reqlist.getDeveloperCount("developer"));
+		assertEquals(1, reqlist.getDeveloperCount("developer2"));
+	}
+
+	/**
+	 * Test peekNextRequirement, assignNextRequirement and getQueueSize
+	 */
+	@Test
+	public void testPeekNextRequirement() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary1", "acceptanceTestId1");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		int id4 = reqlist.addRequirement("summary4", "acceptanceTestId4");
+		assertNull(reqlist.peekNextRequirement(true));
+		assertNull(reqlist.assignNextRequirement("developer"));
+		reqlist.executeCommand(id1, new Command(CommandValue.ACCEPT, null, null, 3, "estimate", null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ACCEPT, null, null, 2, "estimate", null, null));
+		reqlist.executeCommand(id3, new Command(CommandValue.ACCEPT, null, null, 2, "estimate", null, null));
+		reqlist.executeCommand(id4, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		assertEquals(4, reqlist.getQueueSize());
+		assertEquals(id4, reqlist.peekNextRequirement(false).getRequirementId());
+		//Test assigning pops the queue in priority then id order
+		assertEquals(id4, reqlist.assignNextRequirement("developer").getRequirementId());
+		assertEquals("Working", reqlist.getRequirementById(id4).getState().getStateName());
+		assertEquals(id2, reqlist.peekNextRequirement(false).getRequirementId());
+		assertEquals(id4, reqlist.peekNextRequirement(true).getRequirementId());
+		assertEquals(3, reqlist.getQueueSize());
+		//Test reject and delete leave the queue
+		reqlist.executeCommand(id2, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		assertEquals(id3, reqlist.peekNextRequirement(false).getRequirementId());
+		reqlist.deleteRequirementById(id3);
+		reqlist.executeCommand(id4, new Command(CommandValue.COMPLETE, null, null, 0, null, null, null));
+		assertEquals(id1, reqlist.peekNextRequirement(true).getRequirementId());
+		assertEquals(1, reqlist.getQueueSize());
+		//Test a Requirement that comes back with its old priority is queued once, in id order
+		reqlist.executeCommand(id2, new Command(CommandValue.REVISE, "summary2", "acceptanceTestId2", 0, null, null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ACCEPT, null, null, 3, "estimate", null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		assertEquals(1, reqlist.getQueueSize());
+		reqlist.executeCommand(id2, new Command(CommandValue.REVISE, "summary2", "acceptanceTestId2", 0, null, null, null));
+		reqlist.executeCommand(id2, new Command(CommandValue.ACCEPT, null, null, 3, "estimate", null, null));
+		assertEquals(2, reqlist.getQueueSize());
+		assertEquals(id1, reqlist.assignNextRequirement("developer").getRequirementId());
+		assertEquals(id2, reqlist.assignNextRequirement("developer").getRequirementId());
+		assertNull(reqlist.peekNextRequirement(false));
+		assertEquals(0, reqlist.getQueueSize());
+		//Test many Requirements taken out of the middle of the queue still come out in priority then id order
+		int[] ids = new int[300];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = reqlist.addRequirement("summary", "acceptanceTestId");
+			reqlist.executeCommand(ids[i], new Command(CommandValue.ACCEPT, null, null, 3 - i % 3, "estimate", null, null));
+		}
+		for (int i = 0; i < ids.length; i += 2) {
+			reqlist.executeCommand(ids[i], new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		}
+		assertEquals(150, reqlist.getQueueSize());
+		for (int p = 1; p <= 3; p++) {
+			for (int i = 1; i < ids.length; i += 2) {
+				if (3 - i % 3 == p) {
+					assertEquals(ids[i], reqlist.assignNextRequirement("developer").getRequirementId());
+				}
+			}
+		}
+		assertNull(reqlist.peekNextRequirement(false));
+	}
+
+	/**
+	 * Test executeCommands
+	 */
+	@Test
+	public void testExecuteCommands() {
+		RequirementsList reqlist = new RequirementsList();
+		int id1 = reqlist.addRequirement("summary1", "acceptanceTestId1");
+		int id2 = reqlist.addRequirement("summary2", "acceptanceTestId2");
+		Command accept = new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null);
+		Command assign = new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null);
+		Command reject = new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE);
+		//Test all-or-nothing follows the state each command leaves behind and applies nothing on failure
+		CommandResult[] results = reqlist.executeCommands(new int[] {id1, id1, id2, 99}, new Command[] {accept, assign, assign, reject}, true);
+		assertArrayEquals(new CommandResult[] {CommandResult.SKIPPED, CommandResult.SKIPPED, CommandResult.INVALID_TRANSITION, CommandResult.NOT_FOUND}, results);
+		assertEquals("Submitted", reqlist.getRequirementById(id1).getState().getStateName());
+		results = reqlist.executeCommands(new int[] {id1, id1, id2}, new Command[] {accept, assign, reject}, true);
+		assertArrayEquals(new CommandResult[] {CommandResult.APPLIED, CommandResult.APPLIED, CommandResult.APPLIED}, results);
+		assertEquals("Working", reqlist.getRequirementById(id1).getState().getStateName());
+		assertEquals("Rejected", reqlist.getRequirementById(id2).getState().getStateName());
+		//Test without all-or-nothing each command is applied on its own
+		results = reqlist.executeCommands(new int[] {id1, id2, 99}, new Command[] {reject, reject, accept}, false);
+		assertArrayEquals(new CommandResult[] {CommandResult.APPLIED, CommandResult.INVALID_TRANSITION, CommandResult.NOT_FOUND}, results);
+		assertEquals(2, reqlist.getStateCount(StateValue.REJECTED));
+		try {
+			reqlist.executeCommands(new int[] {id1}, new Command[0], false);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid batch", e.getMessage());
+		}
+		//Test a null Command is rejected before anything is applied in either mode
+		int id3 = reqlist.addRequirement("summary3", "acceptanceTestId3");
+		for (boolean allOrNothing : new boolean[] {true, false}) {
+			try {
+				reqlist.executeCommands(new int[] {id3, id3}, new Command[] {accept, null}, allOrNothing);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Invalid batch", e.getMessage());
+				assertEquals("Submitted", reqlist.getRequirementById(id3).getState().getStateName());
+			}
+		}
+		//Test all-or-nothing keeps the state of each of many Requirements apart
+		int[] ids = new int[40];
+		Command[] commands = new Command[80];
+		int[] batchIds = new int[80];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = reqlist.addRequirement("summary", "acceptanceTestId");
+			batchIds[i] = ids[i];
+			commands[i] = accept;
+			batchIds[ids.length + i] = ids[i];
+			commands[ids.length + i] = assign;
+		}
+		results = reqlist.executeCommands(batchIds, commands, true);
+		for (int i = 0; i < results.length; i++) {
+			assertEquals(CommandResult.APPLIED, results[i]);
+		}
+		assertEquals(ids.length, reqlist.getStateCount(StateValue.WORKING));
+	}
+
+	/**
+	 * Test addRequirements
+	 */
+	@Test
+	public void testAddRequirements() {
+		RequirementsList reqlist = new RequirementsList();
+		int id0 = reqlist.addRequirement("summary0", "acceptanceTestId0");
+		int first = reqlist.addRequirements(new String[] {"summary1", "summary2", "summary3"},
+				new String[] {"aaaaTest", "acceptanceTestId2", "acceptanceTestId3"});
+		assertEquals(id0 + 1, first);
+		assertEquals(4, reqlist.getRequirements().size());
+		assertEquals("summary3", reqlist.getRequirementById(first + 2).getSummary());
+		assertEquals(4, reqlist.getStateCount(StateValue.SUBMITTED));
+		assertArrayEquals(new int[] {first}, reqlist.searchAcceptanceTestIds("aaa"));
+		assertEquals(first + 3, reqlist.addRequirement("summary4", "acceptanceTestId4"));
+		//Test nothing is added from an invalid batch
+		try {
+			reqlist.addRequirements(new String[] {"summary5", null}, new String[] {"acceptanceTestId5", "acceptanceTestId6"});
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(5, reqlist.getRequirements().size());
+		}
+		try {
+			reqlist.addRequirements(new String[] {"summary5"}, new String[0]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid batch", e.getMessage());
+		}
+		assertEquals(first + 4, reqlist.addRequirement("summary5", "acceptanceTestId5"));
+	}
+
+	/**
+	 * Test getNextRequirementId and that each list gives out its own requirementIds
+	 */
+	@Test
+	public void testGetNextRequirementId() {
+		RequirementsList reqlist = new RequirementsList();
+		assertEquals(0, reqlist.getNextRequirementId());
+		reqlist.addRequirement("summary1", "acceptanceTestId1");
+		reqlist.addRequirement("summary2", "acceptanceTestId2");
+		RequirementsList other = new RequirementsList();
+		assertEquals(0, other.addRequirement("summary", "acceptanceTestId"));
+		Requirement.setCounter(50);
+		assertEquals(2, reqlist.addRequirement("summary3", "acceptanceTestId3"));
+		assertEquals(3, reqlist.getNextRequirementId());
+		//Test an invalid add does not use up an id
+		try {
+			reqlist.addRequirement(null, "acceptanceTestId");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, reqlist.getNextRequirementId());
+		}
+		//Test a restored requirementId is not handed out again
+		reqlist.addRequirement(10, "summary10", "acceptanceTestId10");
+		assertEquals(11, reqlist.addRequirement("summary11", "acceptanceTestId11"));
+		//Test a block past Requirement.MAX_ID adds nothing and uses up no requirementIds
+		reqlist.addRequirement(Requirement.MAX_ID - 2, "summary", "acceptanceTestId");
+		try {
+			reqlist.addRequirements(new String[] {"summary", "summary", "summary"}, new String[] {"test", "test", "test"});
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(Requirement.MAX_ID - 1, reqlist.getNextRequirementId());
+			assertEquals(6, reqlist.getRequirements().size());
+		}
+		assertEquals(Requirement.MAX_ID - 1, reqlist.addRequirements(new String[] {"summary", "summary"}, new String[] {"test", "test"}));
+		try {
+			reqlist.addRequirement("summary", "acceptanceTestId");
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(8, reqlist.getRequirements().size());
+		}
+	}
+
+	/**
+	 * Test getView
+	 */
+	@Test
+	public void testGetView() {
+		RequirementsList reqlist = new RequirementsList();
+		assertEquals(0, reqlist.getView().size());
+		assertFalse(reqlist.getView().iterator().hasNext());
+		for (int i = 0; i < 40; i++) {
+			reqlist.addRequirement("summary" + i, "acceptanceTestId" + i);
+		}
+		reqlist.addRequirement(5000, "summary5000", "acceptanceTestId5000");
+		RequirementsView first = reqlist.getView();
+		assertEquals(41, first.size());
+		assertSame(first, reqlist.getView());
+		assertEquals("summary5000", first.getRequirementById(5000).getSummary());
+		assertNull(first.getRequirementById(40));
+		assertNull(first.getRequirementById(1 << 30));
+		assertNull(first.getRequirementById(-1));
+		//Test changes after the view do not show up in it, and unchanged Requirements are shared
+		reqlist.executeCommand(3, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		reqlist.deleteRequirementById(7);
+		reqlist.addRequirement("summary5001", "acceptanceTestId5001");
+		RequirementsView second = reqlist.getView();
+		assertEquals(41, second.size());
+		assertEquals("Submitted", first.getRequirementById(3).getState().getStateName());
+		assertEquals("Accepted", second.getRequirementById(3).getState().getStateName());
+		assertEquals(1, second.getRequirementById(3).getPriority());
+		assertNotNull(first.getRequirementById(7));
+		assertNull(second.getRequirementById(7));
+		assertSame(first.getRequirementById(4), second.getRequirementById(4));
+		//Test iteration is in id order
+		Iterator<FrozenRequirement> it = second.iterator();
+		int previous = -1;
+		int count = 0;
+		while (it.hasNext()) {
+			int id = it.next().getRequirementId();
+			assertTrue(id > previous);
+			previous = id;
+			count++;
+		}
+		assertEquals(41, count);
+		assertEquals(5001, previous);
+		Object[][] array = second.getRequirementListAsArray();
+		assertEquals(6, array[6][0]);
+		assertEquals(8, array[7][0]);
+		assertEquals("summary8", array[7][2]);
+		//Test a view can be turned back into Requirements
+		Requirement copy = second.getRequirementById(3).toRequirement();
+		assertEquals("estimate", copy.getEstimate());
+		assertEquals(3, copy.getRequirementId());
+	}
+
+
+	/**
+	 * Test method for tryExecuteCommand with an expected version
+	 */
+	@Test
+	public void testTryExecuteCommandVersion() {
+		RequirementsList reqlist = new RequirementsList();
+		int id = reqlist.addRequirement("summary", "acceptanceTestId");
+		Command accept = new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null);
+		Command assign = new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null);
+		int version = reqlist.getRequirementById(id).getVersion();
+		assertEquals(CommandResult.APPLIED, reqlist.tryExecuteCommand(id, accept, version));
+		//Test a command based on the old version conflicts and leaves the requirement alone
+		assertEquals(CommandResult.CONFLICT, reqlist.tryExecuteCommand(id, assign, version));
+		assertEquals("Accepted", reqlist.getRequirementById(id).getState().getStateName());
+		assertEquals(CommandResult.APPLIED, reqlist.tryExecuteCommand(id, assign, reqlist.getView().getRequirementById(id).getVersion()));
+		assertEquals("Working", reqlist.getRequirementById(id).getState().getStateName());
+		assertEquals(CommandResult.NOT_FOUND, reqlist.tryExecuteCommand(99, assign, 0));
 	}
 
 }
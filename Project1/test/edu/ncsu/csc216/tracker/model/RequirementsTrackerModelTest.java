@@ -5,20 +5,30 @@ package edu.ncsu.csc216.tracker.model;
 
 import static org.junit.Assert.*;
 
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.tracker.requirement.Command;
-import edu.ncsu.csc216.tracker.requirement.Requirement;
 import edu.ncsu.csc216.tracker.requirement.RequirementState;
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
 import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
 import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 
 /**
  * Test class for RequirementsTrackerModel class
@@ -29,6 +39,12 @@ public class RequirementsTrackerModelTest {
 	/** Valid req list */
 	private final String validTestFile = "test-files/req1.xml";
 	
+	/** File written by the save tests */
+	private final String actualFile = "test-files/act_req.xml";
+	
+	/** Journal written by the journal tests */
+	private final String journalFile = "test-files/act_req.journal";
+	
 
 	/**
 	 * Setup for testing RequirementsTrackerModel
@@ -36,6 +52,9 @@ public class RequirementsTrackerModelTest {
 	 */
 	@Before
 	public void setUp() throws Exception {
+		Files.deleteIfExists(FileSystems.getDefault().getPath(actualFile));
+		Files.deleteIfExists(FileSystems.getDefault().getPath(actualFile + RequirementsTrackerModel.CHANGES_SUFFIX));
+
 /*		Path sourcePath = FileSystems.getDefault().getPath("test-files", "expected_requirements.txt");
 		Path destinationPath = FileSystems.getDefault().getPath("test-files", "actual_requirements.txt");
 		try {
@@ -47,6 +66,18 @@ public class RequirementsTrackerModelTest {
 */		
 	}
 
+	/**
+	 * Removes the files written by the save tests
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		RequirementsTrackerModel.getInstance().closeJournal();
+		Files.deleteIfExists(FileSystems.getDefault().getPath(actualFile));
+		Files.deleteIfExists(FileSystems.getDefault().getPath(actualFile + RequirementsTrackerModel.CHANGES_SUFFIX));
+		Files.deleteIfExists(FileSystems.getDefault().getPath(journalFile));
+	}
+
 	/**
 	 * Test method for getInstance
 	 */
@@ -63,10 +94,51 @@ public class RequirementsTrackerModelTest {
 	public void testLoadRequirementsFromFile() {
 		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
 		assertNotNull(model);
-/*		model.loadRequirementsFromFile("test_files/req1.xml");
+		model.loadRequirementsFromFile(validTestFile);
 		Object[][] array = model.getRequirementListAsArray();
-		assertEquals(5, array.length);
-*/
+		assertEquals(6, array.length);
+		assertEquals(23, array[4][0]);
+		assertEquals("Rejected", ((RequirementState) array[4][1]).getStateName());
+		FrozenRequirement r = model.getRequirementSnapshot(23);
+		assertEquals(Rejection.DUPLICATE, r.getRejectionReason());
+		assertEquals(0, r.getPriority());
+		r = model.getRequirementSnapshot(2);
+		assertEquals("Working", r.getState().getStateName());
+		assertEquals("SubmittedToAccepted", r.getAcceptanceTestId());
+		assertEquals(1, r.getPriority());
+		assertEquals("1 hour", r.getEstimate());
+		assertEquals("An excellent 216 student!", r.getDeveloper());
+		assertEquals(1, model.getStateCount(StateValue.VERIFIED));
+		//Test loaded requirements still take commands and new ids follow the largest loaded id
+		model.executeCommand(2, new Command(CommandValue.COMPLETE, null, null, 0, null, null, null));
+		assertEquals("Working", r.getState().getStateName());
+		assertEquals("Completed", model.getRequirementSnapshot(2).getState().getStateName());
+		model.addRequirement("summary", "acceptanceTestId");
+		assertEquals("summary", model.getRequirementSnapshot(33).getSummary());
+		//Test invalid files; req6.xml is the file that does not exist, as listed in test-files/README.txt
+		for (int i = 2; i <= 21; i++) {
+			if (i == 6) {
+				continue;
+			}
+			assertTrue("req" + i + ".xml missing", new File("test-files/req" + i + ".xml").exists());
+			try {
+				model.loadRequirementsFromFile("test-files/req" + i + ".xml");
+				fail("req" + i + ".xml loaded");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+		//Test a file that does not exist
+		assertFalse(new File("test-files/req6.xml").exists());
+		try {
+			model.loadRequirementsFromFile("test-files/req6.xml");
+			fail("req6.xml loaded");
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		//Test a file that cannot be loaded leaves the current list in place
+		assertEquals(7, model.getRequirementListAsArray().length);
+		assertEquals("summary", model.getRequirementSnapshot(33).getSummary());
 	}
 
 	/**
@@ -76,6 +148,45 @@ public class RequirementsTrackerModelTest {
 	public void testSaveRequirementsToFile() {
 		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
 		assertNotNull(model);
+		//Test round trip of every expected file
+		String[] names = {"all", "accepted", "rejected", "submitted", "verified"};
+		for (int i = 0; i < names.length; i++) {
+			model.loadRequirementsFromFile("test-files/exp_req_" + names[i] + ".xml");
+			model.saveRequirementsToFile(actualFile);
+			checkFiles("test-files/exp_req_" + names[i] + ".xml", actualFile);
+		}
+		//Test saving after commands
+		model.loadRequirementsFromFile("test-files/exp_req_submitted.xml");
+		model.executeCommand(0, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		model.saveRequirementsToFile(actualFile);
+		checkFiles("test-files/exp_req_rejected.xml", actualFile);
+		//Test empty list
+		model.createNewRequirementsList();
+		model.saveRequirementsToFile(actualFile);
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals(0, model.getRequirementListAsArray().length);
+		//Test invalid file
+		try {
+			model.saveRequirementsToFile("test-files/no-such-dir/req.xml");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to save file", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Helper method to compare two files for the same contents
+	 * @param expFile expected output
+	 * @param actFile actual output
+	 */
+	private void checkFiles(String expFile, String actFile) {
+		try {
+			byte[] expected = Files.readAllBytes(FileSystems.getDefault().getPath(expFile));
+			byte[] actual = Files.readAllBytes(FileSystems.getDefault().getPath(actFile));
+			assertEquals(expFile, new String(expected, "UTF-8"), new String(actual, "UTF-8"));
+		} catch (IOException e) {
+			fail("Error reading files.");
+		}
 	}
 
 	/**
@@ -121,17 +232,26 @@ public class RequirementsTrackerModelTest {
 	}
 
 	/**
-	 * Test method for getRequirementById
+	 * Test method for getRequirementSnapshot and the deprecated getRequirementById
 	 */
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testGetRequirementById() {
 		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
 		model.createNewRequirementsList();
 		model.addRequirement("summary", "acceptanceTestId");
 
-		Requirement r = model.getRequirementById(0);
+		FrozenRequirement r = model.getRequirementSnapshot(0);
 		assertEquals("Submitted", r.getState().getStateName());
 		assertEquals("summary", r.getSummary());		
+		//Test the Requirement is a copy that later Commands do not change
+		model.executeCommand(0, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		assertEquals("Submitted", r.getState().getStateName());
+		assertEquals(0, r.getVersion());
+		assertEquals(1, model.getRequirementSnapshot(0).getVersion());
+		//Test getRequirementById still returns the Requirement in the list
+		assertEquals("Accepted", model.getRequirementById(0).getState().getStateName());
+		assertNull(model.getRequirementById(1));
 	}
 
 	/**
@@ -144,7 +264,7 @@ public class RequirementsTrackerModelTest {
 		model.addRequirement("summary", "acceptanceTestId");
 		Command c = new Command(CommandValue.ACCEPT, "summary", "id", 1, "estimate", "developer", Rejection.DUPLICATE);
 		model.executeCommand(0, c);
-		Requirement r = model.getRequirementById(0);
+		FrozenRequirement r = model.getRequirementSnapshot(0);
 		assertEquals("Accepted", r.getState().getStateName());
 		assertEquals("summary", r.getSummary());		
 		assertEquals("estimate", r.getEstimate());
@@ -164,4 +284,665 @@ public class RequirementsTrackerModelTest {
 		model.deleteRequirementById(0);
 	}
 
+	/**
+	 * Test method for tryExecuteCommand
+	 */
+	@Test
+	public void testTryExecuteCommand() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.addRequirement("summary", "acceptanceTestId");
+		Command c = new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null);
+		assertEquals(CommandResult.INVALID_TRANSITION, model.tryExecuteCommand(0, c));
+		assertEquals(CommandResult.NOT_FOUND, model.tryExecuteCommand(1, c));
+		assertNull(model.getRequirementSnapshot(0).getDeveloper());
+		try {
+			model.executeCommand(0, c);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals("RequirementsTrackerModel exception thrown", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for getRequirementListAsArray for one state and getStateCount
+	 */
+	@Test
+	public void testGetRequirementListAsArrayByState() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.addRequirement("summary", "acceptanceTestId");
+		model.addRequirement("summary2", "acceptanceTestId2");
+		model.addRequirement("summary3", "acceptanceTestId3");
+		model.executeCommand(2, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		model.executeCommand(0, new Command(CommandValue.ACCEPT, null, null, 2, "estimate", null, null));
+		assertEquals(2, model.getStateCount(StateValue.ACCEPTED));
+		assertEquals(1, model.getStateCount(StateValue.SUBMITTED));
+		Object[][] array = model.getRequirementListAsArray(StateValue.ACCEPTED);
+		assertEquals(2, array.length);
+		assertEquals(0, array[0][0]);
+		assertEquals(2, array[1][0]);
+		assertEquals("summary3", array[1][2]);
+		assertEquals(0, model.getRequirementListAsArray(StateValue.VERIFIED).length);
+	}
+
+	/**
+	 * Test method for saveChangesToFile and compactRequirementsFile
+	 */
+	@Test
+	public void testSaveChangesToFile() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		File changes = new File(actualFile + RequirementsTrackerModel.CHANGES_SUFFIX);
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		//Test list that did not come from the file is saved in full
+		model.saveChangesToFile(actualFile);
+		assertFalse(changes.exists());
+		checkFiles("test-files/exp_req_all.xml", actualFile);
+		//Test no changes writes nothing
+		model.saveChangesToFile(actualFile);
+		assertFalse(changes.exists());
+		//Test only the changes are appended
+		model.executeCommand(0, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		model.saveChangesToFile(actualFile);
+		assertTrue(changes.exists());
+		checkFiles("test-files/exp_req_all.xml", actualFile);
+		model.deleteRequirementById(1);
+		model.addRequirement("summary", "acceptanceTestId");
+		model.saveChangesToFile(actualFile);
+		Object[][] expected = model.getRequirementListAsArray();
+		//Test load applies the changes in place
+		model.loadRequirementsFromFile(actualFile);
+		Object[][] actual = model.getRequirementListAsArray();
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i][0], actual[i][0]);
+			assertEquals(expected[i][1], actual[i][1]);
+			assertEquals(expected[i][2], actual[i][2]);
+		}
+		assertEquals("Rejected", model.getRequirementSnapshot(0).getState().getStateName());
+		assertNull(model.getRequirementSnapshot(1));
+		//Test compacted file is the same as a full save
+		model.compactRequirementsFile(actualFile);
+		assertFalse(changes.exists());
+		String fullFile = "test-files/act_req_full.xml";
+		model.saveRequirementsToFile(fullFile);
+		checkFiles(fullFile, actualFile);
+		new File(fullFile).delete();
+		//Test new requirement does not reuse an id
+		model.loadRequirementsFromFile(actualFile);
+		model.addRequirement("summary2", "acceptanceTestId2");
+		assertEquals(actual.length + 1, model.getRequirementListAsArray().length);
+	}
+
+	/**
+	 * Test method for saveChangesToFile and loadRequirementsFromFile with damaged segments at the end of the changes file
+	 * @throws IOException if the changes file cannot be damaged for the test
+	 */
+	@Test
+	public void testSaveChangesToFileDamaged() throws IOException {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		File changes = new File(actualFile + RequirementsTrackerModel.CHANGES_SUFFIX);
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		model.saveRequirementsToFile(actualFile);
+		model.loadRequirementsFromFile(actualFile);
+		model.executeCommand(0, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		model.saveChangesToFile(actualFile);
+		long saved = changes.length();
+		//Test a whole segment with the wrong CRC and a segment cut off by a crash are ignored
+		byte[] segment = "<Segment><Deleted>0</Deleted></Segment>".getBytes("UTF-8");
+		FileOutputStream damage = new FileOutputStream(changes, true);
+		damage.write(RequirementsXMLWriter.segmentHeader(segment.length, 0));
+		damage.write(segment);
+		damage.write(RequirementsXMLWriter.segmentHeader(0, 0));
+		damage.write(segment, 0, 20);
+		damage.close();
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals("Rejected", model.getRequirementSnapshot(0).getState().getStateName());
+		//Test the next save cuts off the damaged segments before appending
+		model.deleteRequirementById(1);
+		model.saveChangesToFile(actualFile);
+		assertTrue(changes.length() > saved);
+		assertEquals(changes.length(), RequirementsXMLReader.committedLength(changes.getPath()));
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals("Rejected", model.getRequirementSnapshot(0).getState().getStateName());
+		assertNull(model.getRequirementSnapshot(1));
+	}
+
+	/**
+	 * Test method for openJournal and closeJournal
+	 * @throws IOException if the journal cannot be damaged for the test
+	 */
+	@Test
+	public void testOpenJournal() throws IOException {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		assertEquals(0, model.openJournal(journalFile));
+		model.executeCommand(0, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		model.tryExecuteCommand(0, new Command(CommandValue.PASS, null, null, 0, null, null, null));
+		model.deleteRequirementById(1);
+		model.deleteRequirementById(1);
+		model.addRequirement("summary", "acceptanceTestId");
+		Object[][] expected = model.getRequirementListAsArray();
+		model.closeJournal();
+		//Test replay on top of the saved file, with a cut off record at the end
+		FileOutputStream damage = new FileOutputStream(journalFile, true);
+		damage.write(new byte[] {0, 0, 0, 40, 1, 2});
+		damage.close();
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		assertEquals(3, model.openJournal(journalFile));
+		Object[][] actual = model.getRequirementListAsArray();
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i][0], actual[i][0]);
+			assertEquals(expected[i][1], actual[i][1]);
+			assertEquals(expected[i][2], actual[i][2]);
+		}
+		assertEquals(Rejection.DUPLICATE, model.getRequirementSnapshot(0).getRejectionReason());
+		//Test records after the cut off record are replayed
+		model.addRequirement("summary2", "acceptanceTestId2");
+		model.closeJournal();
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		assertEquals(4, model.openJournal(journalFile));
+		int lastId = (Integer) actual[actual.length - 1][0];
+		assertEquals("summary2", model.getRequirementSnapshot(lastId + 1).getSummary());
+		//Test save empties the journal
+		model.saveRequirementsToFile(actualFile);
+		assertEquals(0, new File(journalFile).length());
+		//Test a new list closes the journal instead of logging to it
+		model.createNewRequirementsList();
+		model.addRequirement("summary3", "acceptanceTestId3");
+		assertEquals(0, new File(journalFile).length());
+		//Test a journal that fails part way through leaves the list as it was
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		model.openJournal(journalFile);
+		model.deleteRequirementById(0);
+		model.closeJournal();
+		byte[] record = {3, 0, 0, 0, 1, 99};
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		DataOutputStream bad = new DataOutputStream(new FileOutputStream(journalFile, true));
+		bad.writeInt(record.length);
+		bad.write(record);
+		bad.writeInt((int) crc.getValue());
+		bad.close();
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		try {
+			model.openJournal(journalFile);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to open journal", e.getMessage());
+		}
+		assertNotNull(model.getRequirementSnapshot(0));
+	}
+
+	/**
+	 * Test method for saveRequirementsToSnapshot and loadRequirementsFromSnapshot
+	 */
+	@Test
+	public void testSaveRequirementsToSnapshot() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		String snapshotFile = "test-files/act_req.snapshot";
+		//Test round trip of every expected file through a snapshot
+		String[] names = {"all", "accepted", "rejected", "submitted", "verified"};
+		for (int i = 0; i < names.length; i++) {
+			model.loadRequirementsFromFile("test-files/exp_req_" + names[i] + ".xml");
+			model.saveRequirementsToSnapshot(snapshotFile);
+			model.loadRequirementsFromSnapshot(snapshotFile);
+			model.saveRequirementsToFile(actualFile);
+			checkFiles("test-files/exp_req_" + names[i] + ".xml", actualFile);
+		}
+		//Test next add does not reuse an id
+		int size = model.getRequirementListAsArray().length;
+		model.addRequirement("summary", "acceptanceTestId");
+		assertEquals(size + 1, model.getRequirementListAsArray().length);
+		//Test empty list
+		model.createNewRequirementsList();
+		model.saveRequirementsToSnapshot(snapshotFile);
+		model.loadRequirementsFromSnapshot(snapshotFile);
+		assertEquals(0, model.getRequirementListAsArray().length);
+		//Test a snapshot save keeps the journal of the changes since the XML file was saved
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		model.saveRequirementsToFile(actualFile);
+		model.openJournal(journalFile);
+		model.addRequirement("summary", "acceptanceTestId");
+		model.saveRequirementsToSnapshot(snapshotFile);
+		model.closeJournal();
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals(1, model.openJournal(journalFile));
+		new File(snapshotFile).delete();
+		//Test file that is not a snapshot
+		try {
+			model.loadRequirementsFromSnapshot("test-files/exp_req_all.xml");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid snapshot file", e.getMessage());
+		}
+		try {
+			model.loadRequirementsFromSnapshot("test-files/no-such-file.snapshot");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to load file", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for openSnapshotStore
+	 * @throws IOException if the store cannot be closed
+	 */
+	@Test
+	public void testOpenSnapshotStore() throws IOException {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		String snapshotFile = "test-files/act_req.snapshot";
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		model.executeCommand(0, new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.OUT_OF_SCOPE));
+		model.saveRequirementsToSnapshot(snapshotFile);
+		Object[][] expected = model.getRequirementListAsArray();
+		//Test with the default chunks and with chunks small enough that records cross them
+		MappedRequirementStore[] stores = {model.openSnapshotStore(snapshotFile), new MappedRequirementStore(snapshotFile, 5)};
+		for (int s = 0; s < stores.length; s++) {
+			MappedRequirementStore store = stores[s];
+			assertEquals(expected.length, store.size());
+			Object[][] actual = store.getRequirementListAsArray();
+			assertEquals(expected.length, actual.length);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i][0], actual[i][0]);
+				assertSame(expected[i][1], actual[i][1]);
+				assertEquals(expected[i][2], actual[i][2]);
+				FrozenRequirement r = model.getRequirementSnapshot((Integer) expected[i][0]);
+				MappedRequirement m = store.getRequirementById(r.getRequirementId());
+				assertEquals(r.getAcceptanceTestId(), m.getAcceptanceTestId());
+				assertEquals(r.getPriority(), m.getPriority());
+				assertEquals(r.getEstimate(), m.getEstimate());
+				assertEquals(r.getDeveloper(), m.getDeveloper());
+				assertEquals(r.getRejectionReason(), m.getRejectionReason());
+				assertEquals(r.getSummary(), m.toRequirement().getSummary());
+			}
+			assertNull(store.getRequirementById(-1));
+			assertNull(store.getRequirementById(1000));
+			store.close();
+		}
+		//Test empty list
+		model.createNewRequirementsList();
+		model.saveRequirementsToSnapshot(snapshotFile);
+		MappedRequirementStore store = model.openSnapshotStore(snapshotFile);
+		assertEquals(0, store.getRequirementListAsArray().length);
+		assertNull(store.getRequirementById(0));
+		store.close();
+		new File(snapshotFile).delete();
+		//Test file that is not a snapshot
+		try {
+			model.openSnapshotStore("test-files/exp_req_all.xml");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid snapshot file", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for getDeveloperWorkload and getDeveloperCount
+	 */
+	@Test
+	public void testGetDeveloperWorkload() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.addRequirement("summary", "acceptanceTestId");
+		model.addRequirement("summary2", "acceptanceTestId2");
+		model.executeCommand(0, new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		model.executeCommand(1, new Command(CommandValue.ACCEPT, null, null, 2, "estimate", null, null));
+		model.executeCommand(1, new Command(CommandValue.ASSIGN, null, null, 0, null, "developer", null));
+		Object[][] array = model.getDeveloperWorkload("developer");
+		assertEquals(1, array.length);
+		assertEquals(1, array[0][0]);
+		assertEquals("summary2", array[0][2]);
+		assertEquals(1, model.getDeveloperCount("developer"));
+		assertEquals(0, model.getDeveloperWorkload("developer2").length);
+	}
+
+	/**
+	 * Test method for getStringPoolReport
+	 */
+	@Test
+	public void testGetStringPoolReport() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		assertEquals("StringPool: 0 strings, 0 duplicates, about 0 bytes saved", model.getStringPoolReport());
+		model.addRequirement("summary", "acceptanceTestId");
+		model.addRequirement("summary2", new String("acceptanceTestId"));
+		assertEquals("StringPool: 3 strings, 1 duplicates, about 56 bytes saved", model.getStringPoolReport());
+		model.createNewRequirementsList();
+		assertEquals("StringPool: 0 strings, 0 duplicates, about 0 bytes saved", model.getStringPoolReport());
+	}
+
+	/**
+	 * Test method for executeCommands, including the journal
+	 */
+	@Test
+	public void testExecuteCommands() throws IOException {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.addRequirement("summary", "acceptanceTestId");
+		model.addRequirement("summary2", "acceptanceTestId2");
+		model.saveRequirementsToFile(actualFile);
+		model.openJournal(journalFile);
+		Command reject = new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE);
+		CommandResult[] results = model.executeCommands(new int[] {0, 1, 1}, new Command[] {reject, reject, reject}, false);
+		assertArrayEquals(new CommandResult[] {CommandResult.APPLIED, CommandResult.APPLIED, CommandResult.INVALID_TRANSITION}, results);
+		model.closeJournal();
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals(2, model.openJournal(journalFile));
+		assertEquals(2, model.getStateCount(StateValue.REJECTED));
+	}
+
+	/**
+	 * Test method for openJournal with a commit window, with writers sharing the journal's fsyncs
+	 */
+	@Test
+	public void testOpenJournalCommitWindow() throws InterruptedException {
+		final RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.saveRequirementsToFile(actualFile);
+		try {
+			model.openJournal(journalFile, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid commit window", e.getMessage());
+		}
+		assertEquals(0, model.openJournal(journalFile, 500));
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		ArrayList<Thread> writers = new ArrayList<Thread>();
+		for (int w = 0; w < 4; w++) {
+			writers.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 50; i++) {
+							model.addRequirement("summary", "acceptanceTestId");
+						}
+					} catch (Throwable t) {
+						failures.add(t);
+					}
+				}
+			});
+		}
+		for (int i = 0; i < writers.size(); i++) {
+			writers.get(i).start();
+		}
+		for (int i = 0; i < writers.size(); i++) {
+			writers.get(i).join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		model.closeJournal();
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals(200, model.openJournal(journalFile));
+		assertEquals(200, model.getRequirementListAsArray().length);
+	}
+
+	/**
+	 * Stress test for sharing the model between threads: writers add Requirements, workers accept and delete them,
+	 * and readers query the model the whole time.  No thread may fail and the indexes must agree at the end.
+	 */
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		final RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		final int adds = 300;
+		final AtomicBoolean done = new AtomicBoolean();
+		ArrayList<Thread> writers = new ArrayList<Thread>();
+		ArrayList<Thread> others = new ArrayList<Thread>();
+		for (int w = 0; w < 4; w++) {
+			final int writer = w;
+			writers.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < adds; i++) {
+							model.addRequirement("summary " + writer + " item" + i, "acceptanceTestId" + writer);
+						}
+					} catch (Throwable t) {
+						failures.add(t);
+					}
+				}
+			});
+		}
+		for (int w = 0; w < 2; w++) {
+			others.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						Command accept = new Command(CommandValue.ACCEPT, null, null, 1, "1 hour", null, null);
+						while (!done.get()) {
+							Object[][] submitted = model.getRequirementListAsArray(StateValue.SUBMITTED);
+							for (int i = 0; i < submitted.length; i++) {
+								int id = (Integer) submitted[i][0];
+								if (id % 10 == 0) {
+									model.deleteRequirementById(id);
+								} else {
+									model.tryExecuteCommand(id, accept);
+								}
+							}
+							Thread.yield();
+						}
+					} catch (Throwable t) {
+						failures.add(t);
+					}
+				}
+			});
+		}
+		for (int r = 0; r < 4; r++) {
+			others.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (!done.get()) {
+							Object[][] all = model.getRequirementListAsArray();
+							for (int i = 0; i < all.length; i += 50) {
+								model.getRequirementSnapshot((Integer) all[i][0]);
+							}
+							model.searchSummaries("item1 summary", true);
+							model.searchAcceptanceTestIds("TestId2");
+							model.getStateCount(StateValue.ACCEPTED);
+							model.peekNextRequirement(true);
+							Thread.yield();
+						}
+					} catch (Throwable t) {
+						failures.add(t);
+					}
+				}
+			});
+		}
+		for (int i = 0; i < others.size(); i++) {
+			others.get(i).start();
+		}
+		for (int i = 0; i < writers.size(); i++) {
+			writers.get(i).start();
+		}
+		for (int i = 0; i < writers.size(); i++) {
+			writers.get(i).join();
+		}
+		Thread.sleep(50);
+		done.set(true);
+		for (int i = 0; i < others.size(); i++) {
+			others.get(i).join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		Object[][] all = model.getRequirementListAsArray();
+		HashSet<Object> ids = new HashSet<Object>();
+		for (int i = 0; i < all.length; i++) {
+			ids.add(all[i][0]);
+		}
+		assertEquals(all.length, ids.size());
+		int counted = 0;
+		for (StateValue state : StateValue.values()) {
+			assertEquals(model.getStateCount(state), model.getRequirementListAsArray(state).length);
+			counted += model.getStateCount(state);
+		}
+		assertEquals(all.length, counted);
+		int deleted = 0;
+		for (int id = 0; id < 4 * adds; id++) {
+			if (model.getRequirementSnapshot(id) == null) {
+				deleted++;
+				assertEquals(0, id % 10);
+			}
+		}
+		assertEquals(4 * adds, all.length + deleted);
+	}
+
+	/**
+	 * Test method for getView
+	 */
+	@Test
+	public void testGetView() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.loadRequirementsFromFile("test-files/exp_req_all.xml");
+		RequirementsView view = model.getView();
+		Object[][] expected = model.getRequirementListAsArray();
+		assertEquals(expected.length, view.size());
+		model.deleteRequirementById((Integer) expected[0][0]);
+		model.createNewRequirementsList();
+		assertEquals(expected.length, view.size());
+		assertEquals(expected[0][2], view.getRequirementById((Integer) expected[0][0]).getSummary());
+		assertEquals(0, model.getView().size());
+	}
+
+
+	/**
+	 * Test method for addEventListener
+	 */
+	@Test
+	public void testAddEventListener() {
+		RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		final ArrayList<List<RequirementEvent>> batches = new ArrayList<List<RequirementEvent>>();
+		RequirementEventListener listener = new RequirementEventListener() {
+			@Override
+			public void requirementsChanged(List<RequirementEvent> events) {
+				batches.add(events);
+			}
+		};
+		model.addEventListener(listener);
+		try {
+			model.addRequirement("summary1", "id1");
+			model.addRequirement("summary2", "id2");
+			assertEquals(2, batches.size());
+			assertEquals(RequirementEvent.Type.ADDED, batches.get(0).get(0).getType());
+			assertEquals(StateValue.SUBMITTED, batches.get(0).get(0).getTo());
+			//Test a batch of Commands is delivered as one batch with the from and to states
+			Command accept = new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null);
+			model.executeCommands(new int[] {0, 1}, new Command[] {accept, accept}, true);
+			assertEquals(3, batches.size());
+			assertEquals("[TRANSITIONED 0 SUBMITTED->ACCEPTED (ACCEPT), TRANSITIONED 1 SUBMITTED->ACCEPTED (ACCEPT)]", batches.get(2).toString());
+			//Test a call that changes nothing delivers nothing
+			assertEquals(CommandResult.INVALID_TRANSITION, model.tryExecuteCommand(0, accept));
+			model.deleteRequirementById(99);
+			assertEquals(3, batches.size());
+			model.deleteRequirementById(1);
+			assertEquals(RequirementEvent.Type.DELETED, batches.get(3).get(0).getType());
+			assertEquals(StateValue.ACCEPTED, batches.get(3).get(0).getFrom());
+			//Test a load is delivered as a single RELOADED event
+			model.loadRequirementsFromFile(validTestFile);
+			assertEquals(5, batches.size());
+			assertEquals("[RELOADED]", batches.get(4).toString());
+			model.addRequirement("summary3", "id3");
+			assertEquals(6, batches.size());
+			assertEquals(RequirementEvent.Type.ADDED, batches.get(5).get(0).getType());
+		} finally {
+			model.removeEventListener(listener);
+		}
+		model.addRequirement("summary4", "id4");
+		assertEquals(6, batches.size());
+	}
+
+
+	/**
+	 * Test method for the journal commit: each change is on the disk when the call returns, including changes
+	 * made by several threads at once that share an fsync.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testJournalCommit() throws InterruptedException {
+		final RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		model.saveRequirementsToFile(actualFile);
+		model.openJournal(journalFile);
+		model.addRequirement("summary", "acceptanceTestId");
+		long length = new File(journalFile).length();
+		assertTrue(length > 0);
+		Thread[] writers = new Thread[4];
+		for (int i = 0; i < writers.length; i++) {
+			writers[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 50; j++) {
+						model.addRequirement("summary", "acceptanceTestId");
+					}
+				}
+			};
+			writers[i].start();
+		}
+		for (int i = 0; i < writers.length; i++) {
+			writers[i].join();
+		}
+		assertEquals(length * 201, new File(journalFile).length());
+		model.closeJournal();
+		model.loadRequirementsFromFile(actualFile);
+		assertEquals(201, model.openJournal(journalFile));
+		assertEquals(201, model.getRequirementListAsArray().length);
+	}
+
+
+	/**
+	 * Test method for event delivery outside the model's lock: a listener can wait on another thread that reads the model,
+	 * and a listener that throws does not keep the events from the others or undo the change.
+	 */
+	@Test
+	public void testEventListenerOutsideLock() {
+		final RequirementsTrackerModel model = RequirementsTrackerModel.getInstance();
+		model.createNewRequirementsList();
+		final int[] counts = new int[1];
+		RequirementEventListener failing = new RequirementEventListener() {
+			@Override
+			public void requirementsChanged(List<RequirementEvent> events) {
+				throw new IllegalStateException("listener failure");
+			}
+		};
+		RequirementEventListener reading = new RequirementEventListener() {
+			@Override
+			public void requirementsChanged(List<RequirementEvent> events) {
+				Thread reader = new Thread() {
+					@Override
+					public void run() {
+						counts[0] = model.getRequirementListAsArray().length;
+					}
+				};
+				reader.start();
+				try {
+					reader.join(10000);
+				} catch (InterruptedException e) {
+					fail();
+				}
+			}
+		};
+		Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+		final ArrayList<Throwable> reported = new ArrayList<Throwable>();
+		Thread.currentThread().setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				reported.add(e);
+			}
+		});
+		model.addEventListener(failing);
+		model.addEventListener(reading);
+		try {
+			model.addRequirement("summary", "acceptanceTestId");
+			assertEquals(1, counts[0]);
+			assertEquals(1, reported.size());
+			assertEquals("listener failure", reported.get(0).getMessage());
+		} finally {
+			model.removeEventListener(failing);
+			model.removeEventListener(reading);
+			Thread.currentThread().setUncaughtExceptionHandler(handler);
+		}
+	}
+
 }
@@ -6,8 +6,10 @@ package edu.ncsu.csc216.tracker.requirement;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import edu.ncsu.csc216.tracker.requirement.enums.CommandResult;
 import edu.ncsu.csc216.tracker.requirement.enums.CommandValue;
 import edu.ncsu.csc216.tracker.requirement.enums.Rejection;
+import edu.ncsu.csc216.tracker.requirement.enums.StateValue;
 import edu.ncsu.csc216.tracker.xml.Req;
 
 /**
@@ -77,6 +79,17 @@ public class RequirementTest {
 		
 		//Test new requirement is in initial state
 		assertEquals(requirement.getState().getStateName(), "Submitted");
+
+		//Test requirements in the same state share one state object
+		Requirement requirement2 = new Requirement("summary2", "id2");
+		assertSame(requirement.getState(), requirement2.getState());
+		requirement.update(new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null));
+		assertNotSame(requirement.getState(), requirement2.getState());
+		requirement2.update(new Command(CommandValue.ACCEPT, null, null, 2, "estimate2", null, null));
+		assertSame(requirement.getState(), requirement2.getState());
+		assertEquals(StateValue.ACCEPTED, requirement.getState().getStateValue());
+		assertEquals(1, requirement.getPriority());
+		assertEquals(2, requirement2.getPriority());
 	}
 
 	/**
@@ -765,4 +778,175 @@ public class RequirementTest {
 		assertEquals("newid", r.getTest());
 		assertEquals("DUPLICATE", r.getRejection());
 	}
+
+	/**
+	 * Test method for tryUpdate
+	 */
+	@Test
+	public void testTryUpdate() {
+		Requirement requirement = new Requirement("summary", "id");
+		//Test invalid command leaves the requirement unchanged
+		Command c = new Command(CommandValue.COMPLETE, null, null, 0, null, null, null);
+		assertEquals(CommandResult.INVALID_TRANSITION, requirement.tryUpdate(c));
+		assertEquals(Requirement.SUBMITTED_NAME, requirement.getState().getStateName());
+		//Test valid command
+		c = new Command(CommandValue.ACCEPT, null, null, 3, "estimate", null, null);
+		assertEquals(CommandResult.APPLIED, requirement.tryUpdate(c));
+		assertEquals(Requirement.ACCEPTED_NAME, requirement.getState().getStateName());
+		assertEquals(3, requirement.getPriority());
+		assertEquals("estimate", requirement.getEstimate());
+		//Test a shared state does not update a requirement in another state
+		Requirement other = new Requirement("other", "otherId");
+		assertFalse(requirement.getState().tryUpdateState(other, new Command(CommandValue.ASSIGN, null, null, 0, null, "dev", null)));
+		assertEquals(Requirement.SUBMITTED_NAME, other.getState().getStateName());
+		assertNull(other.getDeveloper());
+		try {
+			requirement.getState().updateState(other, new Command(CommandValue.ASSIGN, null, null, 0, null, "dev", null));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(Requirement.SUBMITTED_NAME, other.getState().getStateName());
+		}
+	}
+
+	/**
+	 * Test method for Requirement constructor that restores a saved Requirement
+	 */
+	@Test
+	public void testRequirementRestore() {
+		Requirement.setCounter(5);
+		Requirement requirement = new Requirement(40, "Completed", "summary", "id", 3, "2 days", "developer", null);
+		assertEquals(40, requirement.getRequirementId());
+		assertEquals(Requirement.COMPLETED_NAME, requirement.getState().getStateName());
+		assertEquals(3, requirement.getPriority());
+		assertEquals("2 days", requirement.getEstimate());
+		assertEquals("developer", requirement.getDeveloper());
+		//Test counter is not used
+		assertEquals(5, new Requirement("summary", "id").getRequirementId());
+		//Test rejection reason by name
+		requirement = new Requirement(41, "Rejected", "summary", "id", 0, null, null, Requirement.OUT_OF_SCOPE_NAME);
+		assertEquals(Rejection.OUT_OF_SCOPE, requirement.getRejectionReason());
+		requirement = new Requirement(41, "Rejected", "summary", "id", 0, null, null, "INAPPROPRIATE");
+		assertEquals(Rejection.INAPPROPRIATE, requirement.getRejectionReason());
+		//Test restored requirement follows the FSM
+		requirement.update(new Command(CommandValue.REVISE, "newsummary", "newid", 0, null, null, null));
+		assertEquals(Requirement.SUBMITTED_NAME, requirement.getState().getStateName());
+		//Test the largest id
+		assertEquals(Requirement.MAX_ID, new Requirement(Requirement.MAX_ID, "Submitted", "summary", "id", 0, null, null, null).getRequirementId());
+		//Test invalid fields
+		String[][] invalid = {{"-1", "Submitted", "0", null, null, null}, {"10000000", "Submitted", "0", null, null, null},
+				{"1", "Unknown", "0", null, null, null},
+				{"1", "Submitted", "1", null, null, null}, {"1", "Accepted", "1", null, null, null},
+				{"1", "Working", "1", "1 hour", null, null}, {"1", "Verified", "0", "1 hour", "developer", null},
+				{"1", "Rejected", "0", null, null, null}, {"1", "Rejected", "0", null, null, "Unknown"}};
+		for (int i = 0; i < invalid.length; i++) {
+			try {
+				new Requirement(Integer.parseInt(invalid[i][0]), invalid[i][1], "summary", "id", Integer.parseInt(invalid[i][2]),
+						invalid[i][3], invalid[i][4], invalid[i][5]);
+				fail("row " + i);
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Test method for the StringPool shared by the Requirements of a list
+	 */
+	@Test
+	public void testStringPool() {
+		StringPool pool = new StringPool();
+		Requirement r1 = new Requirement(new String("summary"), new String("acceptanceTestId"));
+		Requirement r2 = new Requirement(new String("summary"), new String("acceptanceTestId"));
+		assertNotSame(r1.getSummary(), r2.getSummary());
+		r1.setStringPool(pool);
+		r2.setStringPool(pool);
+		assertSame(r1.getSummary(), r2.getSummary());
+		assertSame(r1.getAcceptanceTestId(), r2.getAcceptanceTestId());
+		assertEquals(2, pool.size());
+		assertEquals(2, pool.getHits());
+		//7 Latin-1 chars: 24 + 16 + 7 rounded up to 48, 16 chars: 24 + 32 = 56
+		assertEquals(48 + 56, pool.getBytesSaved());
+		//Test Command driven fields
+		r1.update(new Command(CommandValue.ACCEPT, null, null, 1, new String("1 hour"), null, null));
+		r2.update(new Command(CommandValue.ACCEPT, null, null, 1, new String("1 hour"), null, null));
+		r1.update(new Command(CommandValue.ASSIGN, null, null, 0, null, new String("developer"), null));
+		r2.update(new Command(CommandValue.ASSIGN, null, null, 0, null, new String("developer"), null));
+		assertSame(r1.getEstimate(), r2.getEstimate());
+		assertSame(r1.getDeveloper(), r2.getDeveloper());
+		assertEquals(4, pool.size());
+		assertEquals("StringPool: 4 strings, 4 duplicates, about " + pool.getBytesSaved() + " bytes saved", pool.getReport());
+		//Test strings nothing holds any more are dropped
+		r1.update(new Command(CommandValue.COMPLETE, null, null, 0, null, null, null));
+		r1.update(new Command(CommandValue.ASSIGN, null, null, 0, null, "developer2", null));
+		assertEquals(5, pool.size());
+		r2.update(new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		assertEquals(4, pool.size());
+		r1.setStringPool(null);
+		assertEquals(2, pool.size());
+		r2.setStringPool(null);
+		assertEquals(0, pool.size());
+		assertEquals("summary", r1.getSummary());
+		//Test many strings survive growing and removing
+		Requirement[] reqs = new Requirement[1000];
+		for (int i = 0; i < reqs.length; i++) {
+			reqs[i] = new Requirement("summary" + i, "test" + (i % 10));
+			reqs[i].setStringPool(pool);
+		}
+		assertEquals(1010, pool.size());
+		for (int i = 0; i < reqs.length; i += 2) {
+			reqs[i].setStringPool(null);
+		}
+		assertEquals(505, pool.size());
+		for (int i = 1; i < reqs.length; i += 2) {
+			assertSame(reqs[i].getSummary(), pool.intern(new String("summary" + i)));
+		}
+	}
+
+	/**
+	 * Test method for getEstimateMinutes and EstimateParser
+	 */
+	@Test
+	public void testGetEstimateMinutes() {
+		assertEquals(60, EstimateParser.toMinutes("1 hour"));
+		assertEquals(90, EstimateParser.toMinutes(" 1.5 Hours "));
+		assertEquals(45, EstimateParser.toMinutes("45m"));
+		assertEquals(960, EstimateParser.toMinutes("2 days"));
+		assertEquals(2400, EstimateParser.toMinutes("1 week"));
+		assertEquals(180, EstimateParser.toMinutes("3"));
+		assertEquals(EstimateParser.UNKNOWN, EstimateParser.toMinutes("soon"));
+		assertEquals(EstimateParser.UNKNOWN, EstimateParser.toMinutes("1.2.3 hours"));
+		assertEquals(EstimateParser.UNKNOWN, EstimateParser.toMinutes("5 fortnights"));
+		assertEquals(EstimateParser.UNKNOWN, EstimateParser.toMinutes(null));
+		Requirement r = new Requirement("summary", "acceptanceTestId");
+		assertEquals(EstimateParser.UNKNOWN, r.getEstimateMinutes());
+		r.update(new Command(CommandValue.ACCEPT, null, null, 1, "2 hours", null, null));
+		assertEquals(120, r.getEstimateMinutes());
+		r.update(new Command(CommandValue.REJECT, null, null, 0, null, null, Rejection.DUPLICATE));
+		assertEquals(EstimateParser.UNKNOWN, r.getEstimateMinutes());
+		r = new Requirement(1, "Accepted", "summary", "test", 2, "30 minutes", null, null);
+		assertEquals(30, r.getEstimateMinutes());
+	}
+
+
+	/**
+	 * Test method for getVersion
+	 */
+	@Test
+	public void testGetVersion() {
+		Requirement r = new Requirement("summary", "id");
+		assertEquals(0, r.getVersion());
+		//Test an applied command bumps the version and an invalid one does not
+		assertEquals(CommandResult.APPLIED, r.tryUpdate(new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null)));
+		assertEquals(1, r.getVersion());
+		assertEquals(CommandResult.INVALID_TRANSITION, r.tryUpdate(new Command(CommandValue.ACCEPT, null, null, 1, "estimate", null, null)));
+		assertEquals(1, r.getVersion());
+		//Test a setter bumps the version only when the value changes
+		r.setDeveloper("developer");
+		assertEquals(2, r.getVersion());
+		r.setDeveloper("developer");
+		assertEquals(2, r.getVersion());
+		r.setAcceptanceTestId("id2");
+		assertEquals(3, r.getVersion());
+	}
+
 }